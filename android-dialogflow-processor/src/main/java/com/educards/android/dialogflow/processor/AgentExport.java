@@ -0,0 +1,114 @@
+/*
+ * Copyright © 2026 Educards Learning, SL.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.educards.android.dialogflow.processor;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Reader of intents (and their parameters) of the agent exported from Dialogflow console.
+ */
+final class AgentExport {
+
+    private AgentExport() {
+    }
+
+    /**
+     * @param path Exported ZIP file or the directory it has been extracted to.
+     * @return Intent name &rarr; parameter names.
+     */
+    static Map<String, Set<String>> loadIntents(String path) throws IOException {
+
+        Map<String, Set<String>> intents = new HashMap<>();
+        File file = new File(path);
+
+        if (file.isDirectory()) {
+            File[] files = new File(file, "intents").listFiles();
+            if (files == null) throw new IOException("Missing 'intents' directory");
+            for (File f : files) {
+                if (isIntentDefinition(f.getName())) {
+                    addIntent(intents, new String(Files.readAllBytes(f.toPath()), StandardCharsets.UTF_8));
+                }
+            }
+        } else {
+            try (ZipInputStream zip = new ZipInputStream(new FileInputStream(file))) {
+                ZipEntry entry;
+                while ((entry = zip.getNextEntry()) != null) {
+                    String name = entry.getName();
+                    if (name.startsWith("intents/") && isIntentDefinition(name.substring("intents/".length()))) {
+                        addIntent(intents, readString(zip));
+                    }
+                }
+            }
+        }
+
+        return intents;
+    }
+
+    /**
+     * <code>&lt;name&gt;.json</code>, but not <code>&lt;name&gt;_usersays_&lt;lng&gt;.json</code>
+     */
+    private static boolean isIntentDefinition(String fileName) {
+        return fileName.endsWith(".json") && !fileName.contains("_usersays_") && !fileName.contains("/");
+    }
+
+    private static void addIntent(Map<String, Set<String>> intents, String json) {
+        JsonObject intent = JsonParser.parseString(json).getAsJsonObject();
+        Set<String> parameters = new HashSet<>();
+
+        JsonArray responses = intent.getAsJsonArray("responses");
+        if (responses != null) {
+            for (JsonElement response : responses) {
+                JsonArray responseParameters = response.getAsJsonObject().getAsJsonArray("parameters");
+                if (responseParameters == null) continue;
+                for (JsonElement parameter : responseParameters) {
+                    JsonElement name = parameter.getAsJsonObject().get("name");
+                    if (name != null) parameters.add(name.getAsString());
+                }
+            }
+        }
+
+        intents.put(intent.get("name").getAsString(), parameters);
+    }
+
+    private static String readString(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) > 0) {
+            out.write(buffer, 0, read);
+        }
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+}
@@ -0,0 +1,347 @@
+/*
+ * Copyright © 2026 Educards Learning, SL.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.educards.android.dialogflow.processor;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+
+/**
+ * Generates <code>&lt;EnclosingClass&gt;_IntentDispatcher</code> for each class with
+ * <code>@IntentHandler</code> methods.
+ *
+ * <ul>
+ *     <li>Intents are routed by a <code>switch</code> on the intent name, parameters are bound
+ *         to the typed method arguments. No reflection is involved at runtime.</li>
+ *     <li>Annotations are matched by their names, therefore this processor doesn't depend on the Android library.</li>
+ *     <li>If the <code>dialogflow.agentExport</code> option points to the exported agent (ZIP or directory)
+ *         the intent and parameter names are validated against the agent and the build fails on mismatch.</li>
+ *     <li>Each dispatcher is generated from a single class (its only originating element), therefore
+ *         the processor is registered as <i>isolating</i> for Gradle incremental compilation.</li>
+ * </ul>
+ */
+public class IntentDispatcherProcessor extends AbstractProcessor {
+
+    static final String OPTION_AGENT_EXPORT = "dialogflow.agentExport";
+
+    private static final String ROUTING_PACKAGE = "com.educards.android.dialogflow.routing";
+    private static final String INTENT_HANDLER = ROUTING_PACKAGE + ".IntentHandler";
+    private static final String INTENT_PARAM = ROUTING_PACKAGE + ".IntentParam";
+    private static final String INTENT_DISPATCHER = ROUTING_PACKAGE + ".IntentDispatcher";
+    private static final String INTENT_RESPONSE = "com.educards.android.dialogflow.DialogflowIntentResponse";
+
+    private static final String SUFFIX = "_IntentDispatcher";
+
+    private Messager messager;
+
+    /**
+     * Intents of the exported agent (intent name -> parameter names)
+     * or <code>null</code> if no agent has been configured.
+     */
+    private Map<String, Set<String>> agentIntents;
+
+    @Override
+    public synchronized void init(ProcessingEnvironment processingEnv) {
+        super.init(processingEnv);
+        messager = processingEnv.getMessager();
+
+        String agentExport = processingEnv.getOptions().get(OPTION_AGENT_EXPORT);
+        if (agentExport != null && !agentExport.isEmpty()) {
+            try {
+                agentIntents = AgentExport.loadIntents(agentExport);
+            } catch (IOException | RuntimeException e) {
+                messager.printMessage(Diagnostic.Kind.ERROR,
+                        String.format("Failed to load Dialogflow agent export [%s=%s]: %s", OPTION_AGENT_EXPORT, agentExport, e));
+            }
+        }
+    }
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        return new HashSet<>(Arrays.asList(INTENT_HANDLER, INTENT_PARAM));
+    }
+
+    @Override
+    public Set<String> getSupportedOptions() {
+        return Collections.singleton(OPTION_AGENT_EXPORT);
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+
+        TypeElement handlerAnnotation = processingEnv.getElementUtils().getTypeElement(INTENT_HANDLER);
+        if (handlerAnnotation == null) {
+            return false;
+        }
+
+        // Handler methods grouped by the enclosing class
+        Map<TypeElement, List<ExecutableElement>> handlers = new LinkedHashMap<>();
+        for (Element element : roundEnv.getElementsAnnotatedWith(handlerAnnotation)) {
+            TypeElement type = (TypeElement) element.getEnclosingElement();
+            handlers.computeIfAbsent(type, t -> new ArrayList<>()).add((ExecutableElement) element);
+        }
+
+        for (Map.Entry<TypeElement, List<ExecutableElement>> entry : handlers.entrySet()) {
+            generateDispatcher(entry.getKey(), entry.getValue());
+        }
+
+        return true;
+    }
+
+    private void generateDispatcher(TypeElement type, List<ExecutableElement> methods) {
+
+        if (!isAccessible(type)) {
+            error(type, "Class with @IntentHandler methods must be a non-private top level or static nested class");
+            return;
+        }
+
+        Map<String, ExecutableElement> routes = new LinkedHashMap<>();
+        List<String> cases = new ArrayList<>();
+        boolean valid = true;
+
+        for (ExecutableElement method : methods) {
+            String intent = annotationValue(method, INTENT_HANDLER);
+
+            if (method.getModifiers().contains(Modifier.PRIVATE) || method.getModifiers().contains(Modifier.STATIC)) {
+                error(method, "@IntentHandler method must be neither private nor static");
+                valid = false;
+                continue;
+            }
+
+            // The generated dispatch(...) doesn't declare any exception to propagate.
+            if (!method.getThrownTypes().isEmpty()) {
+                error(method, String.format("@IntentHandler method must not declare thrown exceptions: %s", method.getThrownTypes()));
+                valid = false;
+                continue;
+            }
+
+            ExecutableElement duplicate = routes.put(intent, method);
+            if (duplicate != null) {
+                error(method, String.format("Intent '%s' is already handled by %s()", intent, duplicate.getSimpleName()));
+                valid = false;
+                continue;
+            }
+
+            Set<String> agentParameters = null;
+            if (agentIntents != null) {
+                agentParameters = agentIntents.get(intent);
+                if (agentParameters == null) {
+                    error(method, String.format("Intent '%s' doesn't exist in the Dialogflow agent", intent));
+                    valid = false;
+                    continue;
+                }
+            }
+
+            String call = generateCall(method, agentParameters);
+            if (call == null) {
+                valid = false;
+            } else {
+                cases.add("            case \"" + escape(intent) + "\": {\n" + call + "                return true;\n            }\n");
+            }
+        }
+
+        if (!valid) {
+            return;
+        }
+
+        String packageName = processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+        String dispatcherName = dispatcherName(type);
+        String handlerType = type.getQualifiedName().toString();
+
+        StringBuilder source = new StringBuilder();
+        if (!packageName.isEmpty()) {
+            source.append("package ").append(packageName).append(";\n\n");
+        }
+        source.append("/**\n")
+                .append(" * Dispatcher of {@link ").append(handlerType).append("} generated by ")
+                .append(IntentDispatcherProcessor.class.getSimpleName()).append(". Do not edit.\n")
+                .append(" */\n")
+                .append("public final class ").append(dispatcherName).append(" implements ").append(INTENT_DISPATCHER).append(" {\n\n")
+                .append("    private final ").append(handlerType).append(" handler;\n\n")
+                .append("    public ").append(dispatcherName).append("(").append(handlerType).append(" handler) {\n")
+                .append("        this.handler = handler;\n")
+                .append("    }\n\n")
+                .append("    @Override\n")
+                .append("    public boolean dispatch(").append(INTENT_RESPONSE).append(" response) {\n")
+                .append("        switch (response.getIntentName()) {\n");
+        for (String c : cases) source.append(c);
+        source.append("            default:\n")
+                .append("                return false;\n")
+                .append("        }\n")
+                .append("    }\n\n")
+                .append("}\n");
+
+        try {
+            String qualifiedName = packageName.isEmpty() ? dispatcherName : packageName + "." + dispatcherName;
+            JavaFileObject file = processingEnv.getFiler().createSourceFile(qualifiedName, type);
+            try (Writer writer = file.openWriter()) {
+                writer.write(source.toString());
+            }
+        } catch (IOException e) {
+            error(type, "Failed to generate " + dispatcherName + ": " + e);
+        }
+    }
+
+    /**
+     * @return Statements binding the parameters and calling the handler method,
+     *         or <code>null</code> if the method is invalid.
+     */
+    private String generateCall(ExecutableElement method, Set<String> agentParameters) {
+
+        StringBuilder statements = new StringBuilder();
+        List<String> args = new ArrayList<>();
+        boolean valid = true;
+
+        List<? extends VariableElement> parameters = method.getParameters();
+        for (int i = 0; i < parameters.size(); i++) {
+            VariableElement parameter = parameters.get(i);
+            TypeMirror type = parameter.asType();
+            String typeName = type.toString();
+            String name = annotationValue(parameter, INTENT_PARAM);
+
+            if (name == null) {
+                if (INTENT_RESPONSE.equals(typeName)) {
+                    args.add("response");
+                } else {
+                    error(parameter, "Parameter of @IntentHandler method must be annotated by @IntentParam or be of type DialogflowIntentResponse");
+                    valid = false;
+                }
+                continue;
+            }
+
+            if (agentParameters != null && !agentParameters.contains(name)) {
+                error(parameter, String.format("Intent parameter '%s' doesn't exist in the Dialogflow agent", name));
+                valid = false;
+                continue;
+            }
+
+            String var = "p" + i;
+            String field = "\"" + escape(name) + "\"";
+            switch (typeName) {
+                case "java.lang.String":
+                    args.add("response.getParameterFieldString(" + field + ")");
+                    break;
+                case "java.lang.Double":
+                    args.add("response.getParameterFieldDouble(" + field + ")");
+                    break;
+                case "java.lang.Boolean":
+                    args.add("response.getParameterFieldBool(" + field + ")");
+                    break;
+                case "com.google.protobuf.Value":
+                    args.add("response.getParameterField(" + field + ")");
+                    break;
+                case "double":
+                    statements.append("                Double ").append(var).append(" = response.getParameterFieldDouble(").append(field).append(");\n");
+                    args.add(var + " != null ? " + var + " : 0d");
+                    break;
+                case "boolean":
+                    statements.append("                Boolean ").append(var).append(" = response.getParameterFieldBool(").append(field).append(");\n");
+                    args.add(var + " != null && " + var);
+                    break;
+                default:
+                    error(parameter, String.format("Unsupported type of @IntentParam '%s': %s", name, typeName));
+                    valid = false;
+            }
+        }
+
+        if (!valid) {
+            return null;
+        }
+
+        statements.append("                handler.").append(method.getSimpleName()).append("(")
+                .append(String.join(", ", args)).append(");\n");
+        return statements.toString();
+    }
+
+    private static boolean isAccessible(TypeElement type) {
+        for (Element e = type; e.getKind() != ElementKind.PACKAGE; e = e.getEnclosingElement()) {
+            if (!(e instanceof TypeElement)) return false;
+            TypeElement t = (TypeElement) e;
+            if (t.getModifiers().contains(Modifier.PRIVATE)) return false;
+            if (t.getNestingKind() == NestingKind.MEMBER && !t.getModifiers().contains(Modifier.STATIC)) return false;
+            if (t.getNestingKind() == NestingKind.LOCAL || t.getNestingKind() == NestingKind.ANONYMOUS) return false;
+        }
+        return true;
+    }
+
+    /**
+     * <code>Outer.Inner</code> &rarr; <code>Outer_Inner_IntentDispatcher</code>
+     */
+    private static String dispatcherName(TypeElement type) {
+        StringBuilder name = new StringBuilder(type.getSimpleName());
+        for (Element e = type.getEnclosingElement(); !(e instanceof PackageElement); e = e.getEnclosingElement()) {
+            name.insert(0, e.getSimpleName() + "_");
+        }
+        return name.append(SUFFIX).toString();
+    }
+
+    /**
+     * @return <code>value</code> of the annotation or <code>null</code> if the element is not annotated.
+     */
+    private static String annotationValue(Element element, String annotation) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            if (((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().contentEquals(annotation)) {
+                for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> e : mirror.getElementValues().entrySet()) {
+                    if (e.getKey().getSimpleName().contentEquals("value")) {
+                        return (String) e.getValue().getValue();
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    private static String escape(String s) {
+        return s.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+
+    private void error(Element element, String message) {
+        messager.printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+
+}
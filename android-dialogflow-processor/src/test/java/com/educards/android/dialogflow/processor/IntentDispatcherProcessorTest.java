@@ -0,0 +1,286 @@
+/*
+ * Copyright © 2026 Educards Learning, SL.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.educards.android.dialogflow.processor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
+import javax.tools.ToolProvider;
+
+/**
+ * Compiles handler classes in memory with {@link IntentDispatcherProcessor}
+ * and checks the generated dispatcher and the reported errors.
+ *
+ * <p>The runtime API of the Android library is replaced by minimal stubs of the same names,
+ * since the processor matches the annotations by name only.</p>
+ */
+public class IntentDispatcherProcessorTest {
+
+    private static final String INTENT_HANDLER = "package com.educards.android.dialogflow.routing;\n" +
+            "public @interface IntentHandler { String value(); }\n";
+
+    private static final String INTENT_PARAM = "package com.educards.android.dialogflow.routing;\n" +
+            "public @interface IntentParam { String value(); }\n";
+
+    private static final String INTENT_DISPATCHER = "package com.educards.android.dialogflow.routing;\n" +
+            "public interface IntentDispatcher { boolean dispatch(com.educards.android.dialogflow.DialogflowIntentResponse response); }\n";
+
+    private static final String INTENT_RESPONSE = "package com.educards.android.dialogflow;\n" +
+            "public class DialogflowIntentResponse {\n" +
+            "    private final String intentName;\n" +
+            "    private final java.util.Map<String, Object> parameters;\n" +
+            "    public DialogflowIntentResponse(String intentName, java.util.Map<String, Object> parameters) {\n" +
+            "        this.intentName = intentName;\n" +
+            "        this.parameters = parameters;\n" +
+            "    }\n" +
+            "    public String getIntentName() { return intentName; }\n" +
+            "    public String getParameterFieldString(String name) { return (String) parameters.get(name); }\n" +
+            "    public Double getParameterFieldDouble(String name) { return (Double) parameters.get(name); }\n" +
+            "    public Boolean getParameterFieldBool(String name) { return (Boolean) parameters.get(name); }\n" +
+            "}\n";
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    /**
+     * Result of a single compilation.
+     */
+    private static class Compilation {
+
+        final boolean success;
+        final List<Diagnostic<? extends JavaFileObject>> diagnostics;
+        final File classes;
+
+        Compilation(boolean success, List<Diagnostic<? extends JavaFileObject>> diagnostics, File classes) {
+            this.success = success;
+            this.diagnostics = diagnostics;
+            this.classes = classes;
+        }
+
+        List<String> errors() {
+            List<String> errors = new ArrayList<>();
+            for (Diagnostic<? extends JavaFileObject> d : diagnostics) {
+                if (d.getKind() == Diagnostic.Kind.ERROR) errors.add(d.getMessage(Locale.ROOT));
+            }
+            return errors;
+        }
+
+        void assertError(String expected) {
+            assertFalse("Compilation should have failed", success);
+            for (String error : errors()) {
+                if (error.contains(expected)) return;
+            }
+            throw new AssertionError(String.format("Expected error '%s' not reported in %s", expected, errors()));
+        }
+    }
+
+    private static JavaFileObject source(String className, String code) {
+        return new SimpleJavaFileObject(URI.create("string:///" + className.replace('.', '/') + ".java"), JavaFileObject.Kind.SOURCE) {
+            @Override
+            public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                return code;
+            }
+        };
+    }
+
+    private Compilation compile(String handlers, String... options) throws IOException {
+
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        File classes = tmp.newFolder();
+
+        try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(diagnostics, Locale.ROOT, StandardCharsets.UTF_8)) {
+            fileManager.setLocation(StandardLocation.CLASS_OUTPUT, Collections.singletonList(classes));
+            fileManager.setLocation(StandardLocation.SOURCE_OUTPUT, Collections.singletonList(classes));
+
+            List<JavaFileObject> sources = Arrays.asList(
+                    source("com.educards.android.dialogflow.routing.IntentHandler", INTENT_HANDLER),
+                    source("com.educards.android.dialogflow.routing.IntentParam", INTENT_PARAM),
+                    source("com.educards.android.dialogflow.routing.IntentDispatcher", INTENT_DISPATCHER),
+                    source("com.educards.android.dialogflow.DialogflowIntentResponse", INTENT_RESPONSE),
+                    source("test.Handlers", handlers));
+
+            JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, diagnostics,
+                    Arrays.asList(options), null, sources);
+            task.setProcessors(Collections.singletonList(new IntentDispatcherProcessor()));
+            boolean success = task.call();
+            return new Compilation(success, diagnostics.getDiagnostics(), classes);
+        }
+    }
+
+    private static String handlers(String body) {
+        return "package test;\n" +
+                "import com.educards.android.dialogflow.DialogflowIntentResponse;\n" +
+                "import com.educards.android.dialogflow.routing.IntentHandler;\n" +
+                "import com.educards.android.dialogflow.routing.IntentParam;\n" +
+                "public class Handlers {\n" +
+                "    public final StringBuilder calls = new StringBuilder();\n" +
+                body +
+                "}\n";
+    }
+
+    private String agentOption(String intentJson) throws IOException {
+        File agent = tmp.newFolder();
+        File intents = new File(agent, "intents");
+        assertTrue(intents.mkdir());
+        Files.write(new File(intents, "order.pizza.json").toPath(), intentJson.getBytes(StandardCharsets.UTF_8));
+        Files.write(new File(intents, "order.pizza_usersays_en.json").toPath(), "[]".getBytes(StandardCharsets.UTF_8));
+        return "-A" + IntentDispatcherProcessor.OPTION_AGENT_EXPORT + "=" + agent.getAbsolutePath();
+    }
+
+    private static final String PIZZA_INTENT = "{\"name\": \"order.pizza\", \"responses\": [{\"parameters\": [" +
+            "{\"name\": \"size\"}, {\"name\": \"count\"}]}]}";
+
+    @Test
+    public void generatedDispatcherRoutesIntents() throws Exception {
+        Compilation compilation = compile(handlers(
+                "    @IntentHandler(\"order.pizza\")\n" +
+                "    void orderPizza(@IntentParam(\"size\") String size, @IntentParam(\"count\") double count,\n" +
+                "                    @IntentParam(\"extra\") boolean extra, DialogflowIntentResponse response) {\n" +
+                "        calls.append(size).append(',').append(count).append(',').append(extra);\n" +
+                "    }\n"));
+
+        assertTrue(compilation.errors().toString(), compilation.success);
+
+        try (URLClassLoader loader = new URLClassLoader(new URL[]{compilation.classes.toURI().toURL()})) {
+            Class<?> handlersClass = loader.loadClass("test.Handlers");
+            Class<?> responseClass = loader.loadClass("com.educards.android.dialogflow.DialogflowIntentResponse");
+            Object handlers = handlersClass.getConstructor().newInstance();
+            Object dispatcher = loader.loadClass("test.Handlers_IntentDispatcher")
+                    .getConstructor(handlersClass).newInstance(handlers);
+            Method dispatch = dispatcher.getClass().getMethod("dispatch", responseClass);
+
+            java.util.Map<String, Object> parameters = new java.util.HashMap<>();
+            parameters.put("size", "large");
+            parameters.put("count", 2.0);
+            Object pizza = responseClass.getConstructor(String.class, java.util.Map.class).newInstance("order.pizza", parameters);
+            Object unknown = responseClass.getConstructor(String.class, java.util.Map.class).newInstance("unknown", parameters);
+
+            assertEquals(true, dispatch.invoke(dispatcher, pizza));
+            assertEquals(false, dispatch.invoke(dispatcher, unknown));
+            // Missing primitive parameters default to 0/false
+            assertEquals("large,2.0,false", handlersClass.getField("calls").get(handlers).toString());
+        }
+    }
+
+    @Test
+    public void duplicateIntentFails() throws Exception {
+        compile(handlers(
+                "    @IntentHandler(\"order.pizza\") void a() {}\n" +
+                "    @IntentHandler(\"order.pizza\") void b() {}\n"))
+                .assertError("Intent 'order.pizza' is already handled by a()");
+    }
+
+    @Test
+    public void unsupportedParameterTypeFails() throws Exception {
+        compile(handlers(
+                "    @IntentHandler(\"order.pizza\") void a(@IntentParam(\"count\") int count) {}\n"))
+                .assertError("Unsupported type of @IntentParam 'count': int");
+    }
+
+    @Test
+    public void unannotatedParameterFails() throws Exception {
+        compile(handlers(
+                "    @IntentHandler(\"order.pizza\") void a(String size) {}\n"))
+                .assertError("must be annotated by @IntentParam");
+    }
+
+    @Test
+    public void privateOrStaticHandlerFails() throws Exception {
+        compile(handlers(
+                "    @IntentHandler(\"order.pizza\") private void a() {}\n" +
+                "    @IntentHandler(\"order.pasta\") static void b() {}\n"))
+                .assertError("@IntentHandler method must be neither private nor static");
+    }
+
+    @Test
+    public void handlerDeclaringExceptionsFails() throws Exception {
+        Compilation compilation = compile(handlers(
+                "    @IntentHandler(\"order.pizza\") void a() throws java.io.IOException {}\n"));
+
+        compilation.assertError("@IntentHandler method must not declare thrown exceptions");
+        // Clean diagnostic only, not a compile error of the generated dispatcher
+        assertFalse(new File(compilation.classes, "test/Handlers_IntentDispatcher.java").exists());
+    }
+
+    @Test
+    public void innerClassFails() throws Exception {
+        compile(handlers(
+                "    class Inner { @IntentHandler(\"order.pizza\") void a() {} }\n"))
+                .assertError("must be a non-private top level or static nested class");
+    }
+
+    @Test
+    public void intentMissingInAgentFails() throws Exception {
+        compile(handlers(
+                "    @IntentHandler(\"order.pasta\") void a() {}\n"),
+                agentOption(PIZZA_INTENT))
+                .assertError("Intent 'order.pasta' doesn't exist in the Dialogflow agent");
+    }
+
+    @Test
+    public void parameterMissingInAgentFails() throws Exception {
+        compile(handlers(
+                "    @IntentHandler(\"order.pizza\") void a(@IntentParam(\"topping\") String topping) {}\n"),
+                agentOption(PIZZA_INTENT))
+                .assertError("Intent parameter 'topping' doesn't exist in the Dialogflow agent");
+    }
+
+    @Test
+    public void handlersMatchingAgentCompile() throws Exception {
+        Compilation compilation = compile(handlers(
+                "    @IntentHandler(\"order.pizza\") void a(@IntentParam(\"size\") String size, @IntentParam(\"count\") Double count) {}\n"),
+                agentOption(PIZZA_INTENT));
+
+        assertTrue(compilation.errors().toString(), compilation.success);
+    }
+
+    @Test
+    public void unreadableAgentExportFails() throws Exception {
+        compile(handlers(
+                "    @IntentHandler(\"order.pizza\") void a() {}\n"),
+                "-A" + IntentDispatcherProcessor.OPTION_AGENT_EXPORT + "=" + new File(tmp.getRoot(), "missing.zip"))
+                .assertError("Failed to load Dialogflow agent export");
+    }
+
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright © 2026 Educards Learning, SL.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.educards.android.audiorec;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import android.media.AudioRecord;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@RunWith(AndroidJUnit4.class)
+public class AudioRecordingThreadTest {
+
+    /**
+     * Source which delivers a few frames of silence and then keeps failing with the given error.
+     */
+    private static class FailingAudioSource implements AudioSource {
+
+        final int errorCode;
+        final AtomicInteger reads = new AtomicInteger();
+        final AtomicInteger releases = new AtomicInteger();
+
+        FailingAudioSource(int errorCode) {
+            this.errorCode = errorCode;
+        }
+
+        @Override
+        public void startRecording() {
+        }
+
+        @Override
+        public int read(byte[] audioData, int offset, int size) {
+            return reads.incrementAndGet() <= 3 ? size : errorCode;
+        }
+
+        @Override
+        public void stop() {
+        }
+
+        @Override
+        public void release() {
+            releases.incrementAndGet();
+        }
+    }
+
+    @Test
+    public void deadObjectStopsRecording() throws Exception {
+        FailingAudioSource source = new FailingAudioSource(AudioRecord.ERROR_DEAD_OBJECT);
+        AudioRecordingThread thread = record(source);
+
+        assertEquals(4, source.reads.get());
+        assertEquals(1, thread.getHealthMonitor().getErrors());
+        assertEquals(AudioRecord.ERROR_DEAD_OBJECT, thread.getHealthMonitor().getLastError());
+    }
+
+    @Test
+    public void repeatedErrorsStopRecording() throws Exception {
+        FailingAudioSource source = new FailingAudioSource(AudioRecord.ERROR);
+        AudioRecordingThread thread = record(source);
+
+        assertEquals(10, thread.getHealthMonitor().getErrors());
+    }
+
+    private static AudioRecordingThread record(FailingAudioSource source) throws InterruptedException {
+
+        CountDownLatch released = new CountDownLatch(1);
+        AudioRecordingThread thread = new AudioRecordingThread();
+        thread.setAudioSource(source);
+        thread.setReleasedCallback(released::countDown);
+
+        assertTrue(thread.startRecording());
+        assertTrue("Recording hasn't stopped on the error", released.await(5, TimeUnit.SECONDS));
+
+        // The state is set right after the released callback.
+        long deadline = System.currentTimeMillis() + 1000;
+        while (thread.getState() != AudioRecordingThread.State.STOPPED && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(AudioRecordingThread.State.STOPPED, thread.getState());
+        assertEquals(1, source.releases.get());
+        return thread;
+    }
+
+}
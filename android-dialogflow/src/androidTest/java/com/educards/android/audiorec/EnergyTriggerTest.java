@@ -0,0 +1,127 @@
+/*
+ * Copyright © 2026 Educards Learning, SL.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.educards.android.audiorec;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+@RunWith(AndroidJUnit4.class)
+public class EnergyTriggerTest {
+
+    /**
+     * Frame of the low-power listener (500 ms).
+     */
+    private static final int FRAME_BYTES = AudioRecordingConstants.SAMPLE_RATE;
+
+    private static final int BYTES_PER_MS = AudioRecordingConstants.SAMPLE_RATE * 2 / 1000;
+
+    /**
+     * @return Frame of silence with a 440 Hz tone of the given amplitude from <code>toneFromMs</code> on.
+     */
+    static byte[] frame(int amplitude, int toneFromMs) {
+        byte[] data = new byte[FRAME_BYTES];
+        for (int i = toneFromMs * BYTES_PER_MS; i + 1 < data.length; i += 2) {
+            int sample = i / 2;
+            int value = (int) (amplitude * Math.sin(2 * Math.PI * 440 * sample / AudioRecordingConstants.SAMPLE_RATE));
+            data[i] = (byte) value;
+            data[i + 1] = (byte) (value >> 8);
+        }
+        return data;
+    }
+
+    @Test
+    public void silenceNeverFires() {
+        EnergyTrigger trigger = new EnergyTrigger();
+        byte[] silence = frame(0, 0);
+        for (int i = 0; i < 20; i++) {
+            assertFalse(trigger.process(silence, silence.length));
+        }
+    }
+
+    @Test
+    public void toneAfterSilenceFires() {
+        EnergyTrigger trigger = new EnergyTrigger();
+        byte[] silence = frame(0, 0);
+        for (int i = 0; i < 5; i++) {
+            assertFalse(trigger.process(silence, silence.length));
+        }
+
+        byte[] tone = frame(8000, 0);
+        assertTrue(trigger.process(tone, tone.length));
+    }
+
+    @Test
+    public void shortBurstIsNotAveragedOut() {
+        EnergyTrigger trigger = new EnergyTrigger();
+        byte[] silence = frame(0, 0);
+        trigger.process(silence, silence.length);
+
+        // 50 ms of tone at the end of a 500 ms frame.
+        byte[] burst = frame(8000, 450);
+        assertTrue(trigger.process(burst, burst.length));
+    }
+
+    @Test
+    public void firstFrameNeverFires() {
+        // No noise floor has been estimated yet.
+        byte[] tone = frame(8000, 0);
+        assertFalse(new EnergyTrigger().process(tone, tone.length));
+    }
+
+    @Test
+    public void levelBelowMinimumDoesNotFire() {
+        EnergyTrigger trigger = new EnergyTrigger();
+        byte[] silence = frame(0, 0);
+        trigger.process(silence, silence.length);
+
+        // Mean absolute value of the tone is ~130, i.e. below the default minimal level of 300.
+        byte[] quietTone = frame(200, 0);
+        assertFalse(trigger.process(quietTone, quietTone.length));
+    }
+
+    @Test
+    public void noiseFloorFollowsSteadyNoise() {
+        EnergyTrigger trigger = new EnergyTrigger();
+        byte[] noise = frame(2000, 0);
+        for (int i = 0; i < 20; i++) {
+            assertFalse(trigger.process(noise, noise.length));
+        }
+
+        // Three times the noise floor is needed.
+        byte[] louder = frame(4000, 0);
+        assertFalse(trigger.process(louder, louder.length));
+        byte[] loud = frame(16000, 0);
+        assertTrue(trigger.process(loud, loud.length));
+    }
+
+    @Test
+    public void emptyFrameIsIgnored() {
+        EnergyTrigger trigger = new EnergyTrigger();
+        assertFalse(trigger.process(new byte[0], 0));
+
+        // Empty frame doesn't count as the first one.
+        byte[] tone = frame(8000, 0);
+        assertFalse(trigger.process(tone, tone.length));
+    }
+
+}
@@ -0,0 +1,204 @@
+/*
+ * Copyright © 2026 Educards Learning, SL.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.educards.android.audiorec;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+@RunWith(AndroidJUnit4.class)
+public class SpeechEndpointerTest {
+
+    private static final int FRAME_MS = 100;
+
+    private static final int FRAME_BYTES = AudioRecordingConstants.BUFFER_SIZE;
+
+    /**
+     * Low background noise (RMS ~35).
+     */
+    private static final int NOISE_AMPLITUDE = 50;
+
+    /**
+     * Loud speech (RMS ~5600).
+     */
+    private static final int SPEECH_AMPLITUDE = 8000;
+
+    /**
+     * @return 100 ms frame of a 440 Hz tone (or a 3 kHz "noise" tone) of the given amplitude.
+     */
+    static byte[] frame(int amplitude, boolean noise) {
+        double frequency = noise ? 3000 : 440;
+        byte[] data = new byte[FRAME_BYTES];
+        for (int i = 0; i + 1 < data.length; i += 2) {
+            int sample = i / 2;
+            int value = (int) (amplitude * Math.sin(2 * Math.PI * frequency * sample / AudioRecordingConstants.SAMPLE_RATE));
+            data[i] = (byte) value;
+            data[i + 1] = (byte) (value >> 8);
+        }
+        return data;
+    }
+
+    /**
+     * @return Whether the end of speech has been reported by the last frame.
+     */
+    private static boolean feed(SpeechEndpointer endpointer, byte[] frame, int frames) {
+        boolean endOfSpeech = false;
+        for (int i = 0; i < frames; i++) {
+            endOfSpeech = endpointer.process(frame, frame.length);
+        }
+        return endOfSpeech;
+    }
+
+    /**
+     * Feeds 500 ms of noise, the speech and then noise until the end of speech is reported.
+     * @return Trailing silence (ms) needed to report the end of speech or <code>-1</code> if not reported within 5 s.
+     */
+    private static int trailingSilenceUntilEndOfSpeech(SpeechEndpointer endpointer, int speechAmplitude, int speechMs) {
+        byte[] noise = frame(NOISE_AMPLITUDE, true);
+        feed(endpointer, noise, 5);
+        feed(endpointer, frame(speechAmplitude, false), speechMs / FRAME_MS);
+        for (int silenceMs = FRAME_MS; silenceMs <= 5000; silenceMs += FRAME_MS) {
+            if (endpointer.process(noise, noise.length)) {
+                return silenceMs;
+            }
+        }
+        return -1;
+    }
+
+    @Test
+    public void noiseIsNotSpeech() {
+        SpeechEndpointer endpointer = new SpeechEndpointer(SpeechEndpointer.Aggressiveness.HIGH);
+        assertFalse(feed(endpointer, frame(NOISE_AMPLITUDE, true), 50));
+        assertFalse(endpointer.isSpeechStarted());
+        assertFalse(endpointer.isEndOfSpeech());
+        assertEquals(-1, endpointer.getEndOfSpeechAudioMs());
+    }
+
+    @Test
+    public void speechStartsAfterOnset() {
+        SpeechEndpointer endpointer = new SpeechEndpointer(SpeechEndpointer.Aggressiveness.MEDIUM);
+        byte[] speech = frame(SPEECH_AMPLITUDE, false);
+        feed(endpointer, frame(NOISE_AMPLITUDE, true), 5);
+
+        // Onset is 150 ms, a single 100 ms frame isn't enough.
+        endpointer.process(speech, speech.length);
+        assertFalse(endpointer.isSpeechStarted());
+        endpointer.process(speech, speech.length);
+        assertTrue(endpointer.isSpeechStarted());
+    }
+
+    @Test
+    public void shortClickIsNotSpeech() {
+        SpeechEndpointer endpointer = new SpeechEndpointer(SpeechEndpointer.Aggressiveness.HIGH);
+        byte[] noise = frame(NOISE_AMPLITUDE, true);
+        feed(endpointer, noise, 5);
+        feed(endpointer, frame(SPEECH_AMPLITUDE, false), 1);
+
+        assertFalse(feed(endpointer, noise, 30));
+        assertFalse(endpointer.isSpeechStarted());
+    }
+
+    @Test
+    public void firstFrameIsNeverSpeech() {
+        // No noise floor has been estimated yet, the speech from the very beginning raises it.
+        SpeechEndpointer endpointer = new SpeechEndpointer(SpeechEndpointer.Aggressiveness.LOW);
+        feed(endpointer, frame(SPEECH_AMPLITUDE, false), 1);
+        assertFalse(endpointer.isSpeechStarted());
+    }
+
+    @Test
+    public void endOfSpeechAfterTrailingSilence() {
+        SpeechEndpointer endpointer = new SpeechEndpointer(SpeechEndpointer.Aggressiveness.MEDIUM);
+
+        assertEquals(800, trailingSilenceUntilEndOfSpeech(endpointer, SPEECH_AMPLITUDE, 1000));
+        assertTrue(endpointer.isEndOfSpeech());
+
+        // 500 ms of noise followed by 1000 ms of speech.
+        assertEquals(1500, endpointer.getEndOfSpeechAudioMs());
+
+        // The end of speech is final.
+        byte[] speech = frame(SPEECH_AMPLITUDE, false);
+        assertTrue(endpointer.process(speech, speech.length));
+    }
+
+    @Test
+    public void pauseShorterThanTrailingSilenceKeepsUtterance() {
+        SpeechEndpointer endpointer = new SpeechEndpointer(SpeechEndpointer.Aggressiveness.MEDIUM);
+        byte[] noise = frame(NOISE_AMPLITUDE, true);
+        byte[] speech = frame(SPEECH_AMPLITUDE, false);
+
+        feed(endpointer, noise, 5);
+        feed(endpointer, speech, 5);
+        assertFalse(feed(endpointer, noise, 7));
+        assertFalse(feed(endpointer, speech, 5));
+        assertFalse(feed(endpointer, noise, 7));
+        assertTrue(feed(endpointer, noise, 1));
+        assertEquals(2200, endpointer.getEndOfSpeechAudioMs());
+    }
+
+    @Test
+    public void moreAggressiveEndpointerClosesSooner() {
+        int low = trailingSilenceUntilEndOfSpeech(new SpeechEndpointer(SpeechEndpointer.Aggressiveness.LOW), SPEECH_AMPLITUDE, 1000);
+        int medium = trailingSilenceUntilEndOfSpeech(new SpeechEndpointer(SpeechEndpointer.Aggressiveness.MEDIUM), SPEECH_AMPLITUDE, 1000);
+        int high = trailingSilenceUntilEndOfSpeech(new SpeechEndpointer(SpeechEndpointer.Aggressiveness.HIGH), SPEECH_AMPLITUDE, 1000);
+
+        assertEquals(1200, low);
+        assertEquals(800, medium);
+        assertEquals(500, high);
+    }
+
+    @Test
+    public void lessAggressiveEndpointerHearsQuieterSpeech() {
+        // Noise of RMS ~350 and speech of RMS ~850, i.e. 2.4 times the noise floor.
+        int noiseAmplitude = 500;
+        int speechAmplitude = 1200;
+
+        for (SpeechEndpointer.Aggressiveness aggressiveness : SpeechEndpointer.Aggressiveness.values()) {
+            SpeechEndpointer endpointer = new SpeechEndpointer(aggressiveness);
+            feed(endpointer, frame(noiseAmplitude, true), 5);
+            feed(endpointer, frame(speechAmplitude, false), 5);
+            assertEquals(aggressiveness.toString(), aggressiveness == SpeechEndpointer.Aggressiveness.LOW,
+                    endpointer.isSpeechStarted());
+        }
+    }
+
+    @Test
+    public void processLevelMatchesProcess() {
+        SpeechEndpointer byData = new SpeechEndpointer(SpeechEndpointer.Aggressiveness.HIGH);
+        SpeechEndpointer byLevel = new SpeechEndpointer(SpeechEndpointer.Aggressiveness.HIGH);
+
+        byte[][] frames = new byte[30][];
+        for (int i = 0; i < frames.length; i++) {
+            frames[i] = frame(i >= 5 && i < 15 ? SPEECH_AMPLITUDE : NOISE_AMPLITUDE, i < 5 || i >= 15);
+        }
+
+        for (byte[] frame : frames) {
+            assertEquals(byData.process(frame, frame.length),
+                    byLevel.processLevel(PcmLevels.rms(frame, frame.length), frame.length));
+            assertEquals(byData.isSpeechStarted(), byLevel.isSpeechStarted());
+        }
+        assertTrue(byLevel.isEndOfSpeech());
+        assertEquals(byData.getEndOfSpeechAudioMs(), byLevel.getEndOfSpeechAudioMs());
+    }
+
+}
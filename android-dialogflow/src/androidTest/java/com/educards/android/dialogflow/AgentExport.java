@@ -0,0 +1,113 @@
+/*
+ * Copyright © 2026 Educards Learning, SL.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.educards.android.dialogflow;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Builds an in-memory ZIP in the layout of the Dialogflow agent export
+ * (see {@link LocalIntentClassifier#fromAgentExport(InputStream, String)}).
+ */
+class AgentExport {
+
+    private final String lngCode;
+    private final Map<String, String> files = new LinkedHashMap<>();
+
+    AgentExport(String lngCode) {
+        this.lngCode = lngCode;
+    }
+
+    /**
+     * @param values Entity values, each with no synonyms other than itself.
+     */
+    AgentExport entity(String name, String... values) throws JSONException {
+        JSONArray entries = new JSONArray();
+        for (String value : values) {
+            entries.put(new JSONObject().put("value", value).put("synonyms", new JSONArray().put(value)));
+        }
+        files.put("entities/" + name + ".json", new JSONObject().put("name", name).toString());
+        files.put("entities/" + name + "_entries_" + lngCode + ".json", entries.toString());
+        return this;
+    }
+
+    /**
+     * @param inputContexts Input contexts of the intent (may be empty).
+     * @param phrases Training phrases, each being a {@link JSONArray} of phrase parts (see {@link #text} and {@link #param}).
+     */
+    AgentExport intent(String name, String[] inputContexts, String fulfillment, JSONArray... phrases) throws JSONException {
+        JSONArray contexts = new JSONArray();
+        for (String context : inputContexts) contexts.put(context);
+
+        JSONObject intent = new JSONObject()
+                .put("name", name)
+                .put("contexts", contexts)
+                .put("responses", new JSONArray().put(new JSONObject()
+                        .put("messages", new JSONArray().put(new JSONObject()
+                                .put("lang", lngCode)
+                                .put("speech", fulfillment)))));
+
+        JSONArray userSays = new JSONArray();
+        for (JSONArray phrase : phrases) userSays.put(new JSONObject().put("data", phrase));
+
+        files.put("intents/" + name + ".json", intent.toString());
+        files.put("intents/" + name + "_usersays_" + lngCode + ".json", userSays.toString());
+        return this;
+    }
+
+    static JSONArray phrase(JSONObject... parts) {
+        JSONArray phrase = new JSONArray();
+        for (JSONObject part : parts) phrase.put(part);
+        return phrase;
+    }
+
+    static JSONObject text(String text) throws JSONException {
+        return new JSONObject().put("text", text);
+    }
+
+    static JSONObject param(String text, String entity, String alias) throws JSONException {
+        return new JSONObject().put("text", text).put("meta", entity).put("alias", alias);
+    }
+
+    InputStream toZip() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(out)) {
+            for (Map.Entry<String, String> file : files.entrySet()) {
+                zip.putNextEntry(new ZipEntry(file.getKey()));
+                zip.write(file.getValue().getBytes(StandardCharsets.UTF_8));
+                zip.closeEntry();
+            }
+        }
+        return new ByteArrayInputStream(out.toByteArray());
+    }
+
+    LocalIntentClassifier build() throws IOException {
+        return LocalIntentClassifier.fromAgentExport(toZip(), lngCode);
+    }
+
+}
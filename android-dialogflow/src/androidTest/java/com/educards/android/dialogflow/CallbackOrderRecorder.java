@@ -0,0 +1,128 @@
+/*
+ * Copyright © 2026 Educards Learning, SL.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.educards.android.dialogflow;
+
+import com.google.api.gax.rpc.StreamController;
+import com.google.cloud.dialogflow.v2.StreamingDetectIntentResponse;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@link DialogflowIntentObserver} which verifies the order of callbacks guaranteed by the observer:
+ * exactly one <code>onStart</code>, any number of responses and exactly one <code>onError</code>
+ * or <code>onComplete</code>, with no interleaving of subsequent intent detections.
+ */
+class CallbackOrderRecorder implements DialogflowIntentObserver {
+
+    /**
+     * Maximal number of violations kept for the failure message.
+     */
+    private static final int MAX_VIOLATIONS = 20;
+
+    private boolean streaming;
+    private long starts;
+    private long completes;
+    private long errors;
+    private long intents;
+    private Throwable lastError;
+    private final List<String> violations = new ArrayList<>();
+
+    @Override
+    public synchronized void onStart(DialogflowIntentDetector detector, StreamController controller) {
+        if (streaming) violation("onStart before the terminal callback of the previous detection");
+        streaming = true;
+        starts++;
+    }
+
+    @Override
+    public synchronized void onResponseIntent(DialogflowIntentDetector detector, StreamingDetectIntentResponse response) {
+        if (!streaming) violation("onResponseIntent outside of a detection");
+        intents++;
+    }
+
+    @Override
+    public synchronized void onResponseEndOfUtterance(DialogflowIntentDetector detector, StreamingDetectIntentResponse response) {
+        if (!streaming) violation("onResponseEndOfUtterance outside of a detection");
+    }
+
+    @Override
+    public synchronized void onResponse(DialogflowIntentDetector detector, StreamingDetectIntentResponse response) {
+        if (!streaming) violation("onResponse outside of a detection");
+    }
+
+    @Override
+    public synchronized void onError(DialogflowIntentDetector detector, Throwable t) {
+        if (!streaming) violation("onError without onStart");
+        streaming = false;
+        errors++;
+        lastError = t;
+    }
+
+    @Override
+    public synchronized void onComplete(DialogflowIntentDetector detector) {
+        if (!streaming) violation("onComplete without onStart");
+        streaming = false;
+        completes++;
+    }
+
+    private void violation(String message) {
+        if (violations.size() < MAX_VIOLATIONS) {
+            violations.add(String.format("%s [starts=%d, completes=%d, errors=%d]", message, starts, completes, errors));
+        }
+    }
+
+    synchronized List<String> getViolations() {
+        return new ArrayList<>(violations);
+    }
+
+    /**
+     * @return <code>true</code> if the last detection has delivered its terminal callback.
+     */
+    synchronized boolean isIdle() {
+        return !streaming;
+    }
+
+    synchronized long getStartCount() {
+        return starts;
+    }
+
+    synchronized long getTerminalCount() {
+        return completes + errors;
+    }
+
+    synchronized long getErrorCount() {
+        return errors;
+    }
+
+    /**
+     * @return Error of the last <code>onError</code> or <code>null</code>.
+     */
+    synchronized Throwable getLastError() {
+        return lastError;
+    }
+
+    synchronized long getIntentCount() {
+        return intents;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("[starts=%d, completes=%d, errors=%d, intents=%d]", starts, completes, errors, intents);
+    }
+
+}
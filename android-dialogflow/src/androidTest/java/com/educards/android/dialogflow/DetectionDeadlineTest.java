@@ -0,0 +1,148 @@
+/*
+ * Copyright © 2026 Educards Learning, SL.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.educards.android.dialogflow;
+
+import static com.educards.android.dialogflow.DetectorLifecycleStressTest.await;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.educards.android.audiorec.AudioRecordingThread;
+import com.google.cloud.dialogflow.v2.SessionName;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Verifies that each of the {@link DetectionTimeouts deadlines} expires for the phase it guards,
+ * that the {@link DialogflowTimeoutException} is the only terminal callback
+ * and that the audio source and the stream are released afterwards.
+ */
+@RunWith(AndroidJUnit4.class)
+public class DetectionDeadlineTest {
+
+    /**
+     * Time given to a wrong terminal callback (or a second one) to show up.
+     */
+    private static final long QUIET_PERIOD_MS = 500;
+
+    private FakeSessionsServer server;
+    private CallbackOrderRecorder recorder;
+    private DialogflowIntentDetector detector;
+    private int baselineThreads;
+
+    @Before
+    public void setUp() throws Exception {
+        FakeAudioSource.resetCounters();
+        baselineThreads = AudioRecordingThread.getLiveThreadCount();
+
+        server = new FakeSessionsServer();
+        recorder = new CallbackOrderRecorder();
+        detector = new DialogflowIntentDetector(
+                InstrumentationRegistry.getInstrumentation().getTargetContext(),
+                server.newSessionsSettings(),
+                SessionName.of("test-project", "deadlines"),
+                "en-US",
+                recorder);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        detector.close();
+        server.close();
+    }
+
+    @Test
+    public void serverSilentAfterHalfCloseTimesOutFinalResult() throws Exception {
+
+        // The server reports the end of utterance (the upstream gets half-closed), but never answers.
+        server.setAnswerHalfClose(false);
+        detector.setTimeouts(DetectionTimeouts.newBuilder()
+                .setNoSpeechMillis(5_000)
+                .setMaxUtteranceMillis(5_000)
+                .setFinalResultMillis(500)
+                .build());
+
+        detect(new FakeAudioSource(60_000, 1));
+
+        assertTimedOut(DialogflowTimeoutException.Reason.FINAL_RESULT);
+    }
+
+    @Test
+    public void silentSourceTimesOutNoSpeech() throws Exception {
+
+        server.setRecognition(FakeSessionsServer.Recognition.NO_SPEECH);
+        detector.setTimeouts(DetectionTimeouts.newBuilder()
+                .setNoSpeechMillis(1_000)
+                .setMaxUtteranceMillis(5_000)
+                .setFinalResultMillis(5_000)
+                .build());
+
+        detect(new FakeAudioSource(0, 1));
+
+        assertTimedOut(DialogflowTimeoutException.Reason.NO_SPEECH);
+    }
+
+    @Test
+    public void longToneTimesOutMaxUtterance() throws Exception {
+
+        // Speech is recognized early (no NO_SPEECH), but it never ends.
+        server.setRecognition(FakeSessionsServer.Recognition.ENDLESS_SPEECH);
+        server.setAudioRequestsPerUtterance(2);
+        detector.setTimeouts(DetectionTimeouts.newBuilder()
+                .setNoSpeechMillis(700)
+                .setMaxUtteranceMillis(1_500)
+                .setFinalResultMillis(5_000)
+                .build());
+
+        detect(new FakeAudioSource(60_000, 1));
+
+        assertTimedOut(DialogflowTimeoutException.Reason.MAX_UTTERANCE);
+    }
+
+    private void detect(FakeAudioSource source) {
+        detector.startIntentDetection(thread -> thread.setAudioSource(source));
+        assertTrue(detector.isRunning());
+    }
+
+    private void assertTimedOut(DialogflowTimeoutException.Reason reason) throws InterruptedException {
+
+        await("terminal callback", () -> recorder.getTerminalCount() > 0);
+        Thread.sleep(QUIET_PERIOD_MS);
+
+        Throwable error = recorder.getLastError();
+        assertTrue("Not a timeout: " + error, error instanceof DialogflowTimeoutException);
+        assertEquals(reason, ((DialogflowTimeoutException) error).getReason());
+
+        assertEquals("Terminal callbacks " + recorder, 1, recorder.getTerminalCount());
+        assertEquals("Terminal callbacks " + recorder, 1, recorder.getErrorCount());
+        assertEquals(0, recorder.getIntentCount());
+        assertEquals("Callback order violations: " + recorder.getViolations(), 0, recorder.getViolations().size());
+
+        await("recording thread to finish", () -> AudioRecordingThread.getLiveThreadCount() == baselineThreads);
+        await("stream to terminate", () -> detector.getOpenStreamCount() == 0 && server.getOpenCallCount() == 0);
+        assertEquals(DialogflowIntentDetector.State.STOPPED, detector.getState());
+        assertEquals("Unreleased audio sources", 0, FakeAudioSource.getUnreleasedCount());
+        assertEquals("Audio sources released more than once", 0, FakeAudioSource.getRedundantReleaseCount());
+    }
+
+}
@@ -0,0 +1,223 @@
+/*
+ * Copyright © 2026 Educards Learning, SL.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.educards.android.dialogflow;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.educards.android.audiorec.AudioRecordingThread;
+import com.google.cloud.dialogflow.v2.SessionName;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Drives {@link DialogflowIntentDetector#startIntentDetection}, {@link DialogflowIntentDetector#requestStop(Runnable)}
+ * and {@link DialogflowIntentDetector#close()} from several threads at once and verifies that
+ * recordings never overlap and that nothing leaks.
+ */
+@RunWith(AndroidJUnit4.class)
+public class DetectorLifecycleStressTest {
+
+    private static final long DURATION_MS = 10_000;
+    private static final long SETTLE_TIMEOUT_MS = 10_000;
+
+    private FakeSessionsServer server;
+    private CallbackOrderRecorder recorder;
+    private DialogflowIntentDetector detector;
+    private int baselineThreads;
+
+    private volatile boolean running;
+
+    @Before
+    public void setUp() throws Exception {
+        FakeAudioSource.resetCounters();
+        baselineThreads = AudioRecordingThread.getLiveThreadCount();
+
+        server = new FakeSessionsServer();
+        server.setFailureRate(0.1);
+
+        // Restarting right from the terminal callback is a supported use case.
+        recorder = new CallbackOrderRecorder() {
+            @Override
+            public void onComplete(DialogflowIntentDetector detector) {
+                super.onComplete(detector);
+                start();
+            }
+        };
+
+        detector = new DialogflowIntentDetector(
+                InstrumentationRegistry.getInstrumentation().getTargetContext(),
+                server.newSessionsSettings(),
+                SessionName.of("test-project", "stress"),
+                "en-US",
+                recorder);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        running = false;
+        detector.close();
+        server.close();
+    }
+
+    private void start() {
+        if (running) {
+            detector.startIntentDetection(thread -> thread.setAudioSource(new FakeAudioSource(300, 10)));
+        }
+    }
+
+    @Test
+    public void concurrentStartAndStopNeverOverlap() throws Exception {
+
+        running = true;
+        runConcurrently(DURATION_MS,
+                this::start,
+                () -> {
+                    if (!detector.isRunning()) start();
+                },
+                () -> detector.requestStop(this::start),
+                () -> detector.requestStop());
+        running = false;
+
+        CountDownLatch stopped = new CountDownLatch(1);
+        detector.requestStop(stopped::countDown);
+        assertTrue("Stopped callback not invoked", stopped.await(SETTLE_TIMEOUT_MS, TimeUnit.MILLISECONDS));
+
+        awaitSettled();
+
+        assertTrue("No intent detection has run", recorder.getStartCount() > 0);
+        assertEquals(recorder.getStartCount(), recorder.getTerminalCount());
+        assertEquals(DialogflowIntentDetector.State.STOPPED, detector.getState());
+        assertNothingLeaked();
+    }
+
+    @Test
+    public void closeDuringConcurrentStartAndStop() throws Exception {
+
+        running = true;
+        Random random = new Random(7);
+        Thread closer = new Thread(() -> {
+            try {
+                Thread.sleep(DURATION_MS / 4 + random.nextInt((int) (DURATION_MS / 4)));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            detector.close();
+        });
+        closer.start();
+
+        runConcurrently(DURATION_MS / 2,
+                this::start,
+                () -> detector.requestStop(this::start),
+                () -> detector.requestStop());
+        running = false;
+        closer.join();
+
+        assertEquals(DialogflowIntentDetector.State.CLOSED, detector.getState());
+
+        // Starting a closed detector is a no-op.
+        detector.startIntentDetection(thread -> thread.setAudioSource(new FakeAudioSource(300, 10)));
+        assertEquals(DialogflowIntentDetector.State.CLOSED, detector.getState());
+
+        awaitSettled();
+        assertNothingLeaked();
+    }
+
+    private void awaitSettled() {
+        await("recording threads to finish", () -> AudioRecordingThread.getLiveThreadCount() == baselineThreads);
+        await("recordings to stop", () -> detector.getLiveRecordingCount() == 0);
+        await("streams to terminate", () -> detector.getOpenStreamCount() == 0 && server.getOpenCallCount() == 0);
+        await("terminal callback", recorder::isIdle);
+    }
+
+    private void assertNothingLeaked() {
+        assertEquals("Overlapping recordings", 1, FakeAudioSource.getMaxConcurrentRecordings());
+        assertEquals("Unreleased audio sources", 0, FakeAudioSource.getUnreleasedCount());
+        assertEquals("Audio sources released more than once", 0, FakeAudioSource.getRedundantReleaseCount());
+        assertEquals("Open streams", 0, detector.getOpenStreamCount());
+        assertEquals("Callback order violations: " + recorder.getViolations(), 0, recorder.getViolations().size());
+    }
+
+    /**
+     * Runs each of the <code>actions</code> repeatedly in its own thread (with random pauses) for the given time.
+     */
+    static void runConcurrently(long durationMs, Runnable... actions) throws InterruptedException {
+
+        long deadline = System.currentTimeMillis() + durationMs;
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        List<Thread> threads = new ArrayList<>();
+
+        for (int i = 0; i < actions.length; i++) {
+            Runnable action = actions[i];
+            Random random = new Random(i);
+            Thread thread = new Thread(() -> {
+                try {
+                    while (System.currentTimeMillis() < deadline && failure.get() == null) {
+                        action.run();
+                        Thread.sleep(random.nextInt(50));
+                    }
+                } catch (Throwable t) {
+                    failure.compareAndSet(null, t);
+                }
+            }, "StressActor-" + i);
+            threads.add(thread);
+            thread.start();
+        }
+
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        if (failure.get() != null) {
+            throw new AssertionError("Actor failed", failure.get());
+        }
+    }
+
+    interface Condition {
+        boolean isMet();
+    }
+
+    static void await(String what, Condition condition) {
+        long deadline = System.currentTimeMillis() + SETTLE_TIMEOUT_MS;
+        while (!condition.isMet()) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("Timed out waiting for " + what);
+            }
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fail("Interrupted waiting for " + what);
+            }
+        }
+    }
+
+}
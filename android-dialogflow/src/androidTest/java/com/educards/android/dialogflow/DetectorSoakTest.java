@@ -0,0 +1,215 @@
+/*
+ * Copyright © 2026 Educards Learning, SL.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.educards.android.dialogflow;
+
+import static com.educards.android.dialogflow.DetectorLifecycleStressTest.await;
+import static com.educards.android.dialogflow.DetectorLifecycleStressTest.runConcurrently;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.educards.android.audiorec.AudioRecordingThread;
+import com.google.cloud.dialogflow.v2.SessionName;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Random;
+
+/**
+ * Soak test of the whole detector lifecycle: creates detectors one after another (against the same
+ * in-process server), drives each of them by concurrent {@link DialogflowIntentDetector#startIntentDetection},
+ * {@link DialogflowIntentDetector#requestStop(Runnable)} and {@link DialogflowIntentDetector#close()}
+ * and verifies that threads, streams, recordings and heap don't grow over time.
+ *
+ * <p>Runs for {@link #DEFAULT_SOAK_MILLIS} by default, a longer soak may be requested by the instrumentation
+ * argument: <code>adb shell am instrument -e soakMillis 3600000 ...</code>
+ * (<code>-Pandroid.testInstrumentationRunnerArguments.soakMillis=3600000</code> with Gradle).</p>
+ */
+@RunWith(AndroidJUnit4.class)
+public class DetectorSoakTest {
+
+    private static final String TAG = "DetectorSoakTest";
+
+    private static final String ARG_SOAK_MILLIS = "soakMillis";
+    private static final long DEFAULT_SOAK_MILLIS = 30_000;
+
+    /**
+     * Lifetime of a single detector.
+     */
+    private static final long GENERATION_MILLIS = 2_000;
+
+    /**
+     * Generations run before the baseline of heap and threads is taken
+     * (class loading, gRPC and thread pools of the server warm up).
+     */
+    private static final int WARMUP_GENERATIONS = 3;
+
+    private static final long HEAP_GROWTH_TOLERANCE_BYTES = 8 * 1024 * 1024;
+    private static final int THREAD_GROWTH_TOLERANCE = 2;
+
+    private FakeSessionsServer server;
+    private int baselineRecordingThreads;
+
+    private volatile DialogflowIntentDetector detector;
+    private volatile boolean running;
+
+    @Before
+    public void setUp() throws Exception {
+        FakeAudioSource.resetCounters();
+        baselineRecordingThreads = AudioRecordingThread.getLiveThreadCount();
+
+        server = new FakeSessionsServer();
+        server.setFailureRate(0.1);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        running = false;
+        if (detector != null) {
+            detector.close();
+        }
+        server.close();
+    }
+
+    private void start() {
+        DialogflowIntentDetector d = detector;
+        if (running && d != null) {
+            d.startIntentDetection(thread -> thread.setAudioSource(new FakeAudioSource(200, 10)));
+        }
+    }
+
+    @Test
+    public void repeatedLifecyclesDontLeak() throws Exception {
+
+        String soakArgument = InstrumentationRegistry.getArguments().getString(ARG_SOAK_MILLIS);
+        long soakMillis = soakArgument != null ? Long.parseLong(soakArgument) : DEFAULT_SOAK_MILLIS;
+        int generations = Math.max(WARMUP_GENERATIONS + 2, (int) (soakMillis / GENERATION_MILLIS));
+
+        Random random = new Random(11);
+        long baselineHeap = 0;
+        int baselineThreads = 0;
+        long maxHeapGrowth = 0;
+        long detections = 0;
+
+        for (int generation = 0; generation < generations; generation++) {
+
+            CallbackOrderRecorder recorder = new CallbackOrderRecorder() {
+                @Override
+                public void onComplete(DialogflowIntentDetector detector) {
+                    super.onComplete(detector);
+                    start();
+                }
+            };
+
+            DialogflowIntentDetector current = new DialogflowIntentDetector(
+                    InstrumentationRegistry.getInstrumentation().getTargetContext(),
+                    server.newSessionsSettings(),
+                    SessionName.of("test-project", "soak-" + generation),
+                    "en-US",
+                    recorder);
+            detector = current;
+            running = true;
+
+            // Close at a random point of the generation, concurrently with the other actors.
+            long closeAfter = GENERATION_MILLIS / 2 + random.nextInt((int) (GENERATION_MILLIS / 2));
+            Thread closer = new Thread(() -> {
+                try {
+                    Thread.sleep(closeAfter);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                current.close();
+            }, "SoakCloser");
+            closer.start();
+
+            runConcurrently(GENERATION_MILLIS,
+                    this::start,
+                    () -> current.requestStop(this::start),
+                    () -> current.requestStop());
+            running = false;
+            closer.join();
+
+            assertEquals(DialogflowIntentDetector.State.CLOSED, current.getState());
+            awaitSettled(current, recorder);
+            assertGenerationClean(generation, current, recorder);
+            detections += recorder.getStartCount();
+
+            detector = null;
+
+            long heap = usedHeap();
+            int threads = Thread.getAllStackTraces().size();
+            if (generation == WARMUP_GENERATIONS - 1) {
+                baselineHeap = heap;
+                baselineThreads = threads;
+            } else if (generation >= WARMUP_GENERATIONS) {
+                maxHeapGrowth = Math.max(maxHeapGrowth, heap - baselineHeap);
+                assertTrue(String.format("Threads grew [generation=%d, baseline=%d, now=%d]", generation, baselineThreads, threads),
+                        threads <= baselineThreads + THREAD_GROWTH_TOLERANCE);
+            }
+
+            Log.i(TAG, String.format("Generation done [generation=%d, detections=%d, heapBytes=%d, threads=%d, serverCalls=%d]",
+                    generation, recorder.getStartCount(), heap, threads, server.getTotalCallCount()));
+        }
+
+        Log.i(TAG, String.format("Soak done [generations=%d, detections=%d, maxHeapGrowthBytes=%d]",
+                generations, detections, maxHeapGrowth));
+
+        assertTrue("No intent detection has run", detections > 0);
+
+        // The last generation is compared rather than the maximum, which may include garbage not yet collected.
+        long heapGrowth = usedHeap() - baselineHeap;
+        assertTrue(String.format("Heap grew by %d bytes", heapGrowth), heapGrowth < HEAP_GROWTH_TOLERANCE_BYTES);
+
+        assertEquals("Overlapping recordings", 1, FakeAudioSource.getMaxConcurrentRecordings());
+        assertEquals("Unreleased audio sources", 0, FakeAudioSource.getUnreleasedCount());
+        assertEquals("Audio sources released more than once", 0, FakeAudioSource.getRedundantReleaseCount());
+    }
+
+    private void awaitSettled(DialogflowIntentDetector detector, CallbackOrderRecorder recorder) {
+        await("recording threads to finish", () -> AudioRecordingThread.getLiveThreadCount() == baselineRecordingThreads);
+        await("recordings to stop", () -> detector.getLiveRecordingCount() == 0);
+        await("streams to terminate", () -> detector.getOpenStreamCount() == 0 && server.getOpenCallCount() == 0);
+        await("terminal callback", recorder::isIdle);
+    }
+
+    private void assertGenerationClean(int generation, DialogflowIntentDetector detector, CallbackOrderRecorder recorder) {
+        String prefix = "[generation=" + generation + "] ";
+        assertEquals(prefix + "Live recording threads", baselineRecordingThreads, AudioRecordingThread.getLiveThreadCount());
+        assertEquals(prefix + "Live recordings", 0, detector.getLiveRecordingCount());
+        assertEquals(prefix + "Open streams", 0, detector.getOpenStreamCount());
+        assertEquals(prefix + "Unbalanced callbacks", recorder.getStartCount(), recorder.getTerminalCount());
+        assertEquals(prefix + "Callback order violations: " + recorder.getViolations(), 0, recorder.getViolations().size());
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            runtime.gc();
+            System.runFinalization();
+            Thread.sleep(100);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+}
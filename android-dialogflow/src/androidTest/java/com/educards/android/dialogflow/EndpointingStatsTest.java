@@ -0,0 +1,142 @@
+/*
+ * Copyright © 2026 Educards Learning, SL.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.educards.android.dialogflow;
+
+import static com.educards.android.dialogflow.DetectorLifecycleStressTest.await;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.educards.android.audiorec.SpeechEndpointer;
+import com.google.cloud.dialogflow.v2.SessionName;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.concurrent.TimeUnit;
+
+@RunWith(AndroidJUnit4.class)
+public class EndpointingStatsTest {
+
+    @Test
+    public void localFirstMeasuresLead() {
+        EndpointingStats stats = new EndpointingStats();
+
+        stats.onLocalEndOfSpeech();
+        stats.onServerEndOfSpeech(true, System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(200));
+
+        assertEquals(1, stats.getLocalEndpoints());
+        assertEquals(1, stats.getServerEndpoints());
+        assertEquals(0, stats.getServerFirstEndpoints());
+        assertEquals(1.0, stats.getLocalFirstRatio(), 0);
+        assertTrue(stats.getLastLeadMillis() >= 200);
+        assertEquals(stats.getLastLeadMillis(), stats.getAverageLeadMillis());
+    }
+
+    @Test
+    public void serverFirstIsCounted() {
+        EndpointingStats stats = new EndpointingStats();
+
+        stats.onServerEndOfSpeech(true, 0);
+
+        assertEquals(0, stats.getLocalEndpoints());
+        assertEquals(1, stats.getServerEndpoints());
+        assertEquals(1, stats.getServerFirstEndpoints());
+        assertEquals(0.0, stats.getLocalFirstRatio(), 0);
+        assertEquals(0, stats.getAverageLeadMillis());
+    }
+
+    @Test
+    public void serverWithoutLocalEndpointingIsNotCompared() {
+        EndpointingStats stats = new EndpointingStats();
+
+        stats.onServerEndOfSpeech(false, 0);
+
+        assertEquals(1, stats.getServerEndpoints());
+        assertEquals(0, stats.getServerFirstEndpoints());
+        assertEquals(0.0, stats.getLocalFirstRatio(), 0);
+    }
+
+    @Test
+    public void localFirstRatio() {
+        EndpointingStats stats = new EndpointingStats();
+
+        for (int i = 0; i < 3; i++) {
+            stats.onLocalEndOfSpeech();
+        }
+        // Server reported the end of speech after one of the local endpoints.
+        stats.onServerEndOfSpeech(true, System.nanoTime());
+        stats.onServerEndOfSpeech(true, 0);
+
+        assertEquals(3, stats.getLocalEndpoints());
+        assertEquals(2, stats.getServerEndpoints());
+        assertEquals(1, stats.getServerFirstEndpoints());
+        assertEquals(0.75, stats.getLocalFirstRatio(), 1e-9);
+    }
+
+    /**
+     * The same detector with local endpointing closes one utterance locally
+     * (a short tone, the server needs more audio) and one by the server (a long tone).
+     */
+    @Test
+    public void detectorCountsLocalAndServerFirst() throws Exception {
+
+        FakeAudioSource.resetCounters();
+        CallbackOrderRecorder recorder = new CallbackOrderRecorder();
+
+        try (FakeSessionsServer server = new FakeSessionsServer()) {
+            DialogflowIntentDetector detector = new DialogflowIntentDetector(
+                    InstrumentationRegistry.getInstrumentation().getTargetContext(),
+                    server.newSessionsSettings(),
+                    SessionName.of("test-project", "endpointing"),
+                    "en-US",
+                    recorder);
+            try {
+                detector.setLocalEndpointing(SpeechEndpointer.Aggressiveness.HIGH);
+
+                // 300 ms of tone preceded by silence (to estimate the noise floor) and 500 ms of trailing silence,
+                // while the server would need 10 s of audio.
+                server.setAudioRequestsPerUtterance(100);
+                detector.startIntentDetection(thread -> thread.setAudioSource(new FakeAudioSource(500, 300, 10)));
+                await("local-first utterance", () -> recorder.getTerminalCount() == 1);
+
+                EndpointingStats stats = detector.getEndpointingStats();
+                assertEquals(1, stats.getLocalEndpoints());
+                assertEquals(0, stats.getServerEndpoints());
+
+                // The server reports the end of utterance after 1 s, in the middle of the tone.
+                server.setAudioRequestsPerUtterance(10);
+                detector.startIntentDetection(thread -> thread.setAudioSource(new FakeAudioSource(500, 2000, 10)));
+                await("server-first utterance", () -> recorder.getTerminalCount() == 2);
+
+                assertEquals(1, stats.getLocalEndpoints());
+                assertEquals(1, stats.getServerEndpoints());
+                assertEquals(1, stats.getServerFirstEndpoints());
+                assertEquals(0.5, stats.getLocalFirstRatio(), 1e-9);
+                assertEquals(2, recorder.getIntentCount());
+                assertEquals("Callback order violations: " + recorder.getViolations(), 0, recorder.getViolations().size());
+
+            } finally {
+                detector.close();
+            }
+        }
+    }
+
+}
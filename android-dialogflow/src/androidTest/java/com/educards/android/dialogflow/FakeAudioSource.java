@@ -0,0 +1,143 @@
+/*
+ * Copyright © 2026 Educards Learning, SL.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.educards.android.dialogflow;
+
+import com.educards.android.audiorec.AudioRecordingConstants;
+import com.educards.android.audiorec.AudioSource;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Synthetic {@link AudioSource} which stands in for the mic: optional silence, a tone ("speech") and silence again,
+ * paced by sleeping in {@link #read(byte[], int, int)} like a blocking mic read.
+ *
+ * <p>Counters shared by all the instances detect overlapping recordings and leaked or doubly released sources.</p>
+ */
+class FakeAudioSource implements AudioSource {
+
+    private static final AtomicInteger created = new AtomicInteger();
+    private static final AtomicInteger released = new AtomicInteger();
+    private static final AtomicInteger redundantReleases = new AtomicInteger();
+    private static final AtomicInteger recording = new AtomicInteger();
+    private static final AtomicInteger maxRecording = new AtomicInteger();
+
+    private static final int BYTES_PER_MS = AudioRecordingConstants.SAMPLE_RATE * 2 / 1000;
+
+    private final long leadingSilenceMillis;
+    private final long speechMillis;
+    private final double speedup;
+
+    private final AtomicBoolean releasedFlag = new AtomicBoolean();
+    private volatile boolean started;
+    private long position;
+
+    /**
+     * @param speechMillis Duration of the tone at the beginning of the recording.
+     * @param speedup How many times faster than realtime the audio is delivered.
+     */
+    FakeAudioSource(long speechMillis, double speedup) {
+        this(0, speechMillis, speedup);
+    }
+
+    /**
+     * @param leadingSilenceMillis Duration of the silence preceding the tone.
+     * @param speechMillis Duration of the tone.
+     * @param speedup How many times faster than realtime the audio is delivered.
+     */
+    FakeAudioSource(long leadingSilenceMillis, long speechMillis, double speedup) {
+        this.leadingSilenceMillis = leadingSilenceMillis;
+        this.speechMillis = speechMillis;
+        this.speedup = speedup;
+        created.incrementAndGet();
+    }
+
+    static void resetCounters() {
+        created.set(0);
+        released.set(0);
+        redundantReleases.set(0);
+        recording.set(0);
+        maxRecording.set(0);
+    }
+
+    /**
+     * @return Number of sources created and not yet released.
+     */
+    static int getUnreleasedCount() {
+        return created.get() - released.get();
+    }
+
+    static int getRedundantReleaseCount() {
+        return redundantReleases.get();
+    }
+
+    /**
+     * @return Maximal number of sources which have been recording at the same time.
+     */
+    static int getMaxConcurrentRecordings() {
+        return maxRecording.get();
+    }
+
+    @Override
+    public void startRecording() {
+        started = true;
+        int current = recording.incrementAndGet();
+        for (;;) {
+            int max = maxRecording.get();
+            if (current <= max || maxRecording.compareAndSet(max, current)) break;
+        }
+    }
+
+    @Override
+    public int read(byte[] audioData, int offset, int size) {
+
+        try {
+            Thread.sleep((long) (size / BYTES_PER_MS / speedup));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        for (int i = offset; i + 1 < offset + size; i += 2) {
+            long sample = position++;
+            long millis = sample / (BYTES_PER_MS / 2) - leadingSilenceMillis;
+            int value = millis >= 0 && millis < speechMillis
+                    ? (int) (8000 * Math.sin(2 * Math.PI * 440 * sample / AudioRecordingConstants.SAMPLE_RATE))
+                    : 0;
+            audioData[i] = (byte) value;
+            audioData[i + 1] = (byte) (value >> 8);
+        }
+        return size;
+    }
+
+    @Override
+    public void stop() {
+        // Like AudioRecord the mic is held until released.
+    }
+
+    @Override
+    public void release() {
+        if (!releasedFlag.compareAndSet(false, true)) {
+            redundantReleases.incrementAndGet();
+            return;
+        }
+        if (started) {
+            recording.decrementAndGet();
+        }
+        released.incrementAndGet();
+    }
+
+}
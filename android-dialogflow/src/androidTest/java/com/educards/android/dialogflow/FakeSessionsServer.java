@@ -0,0 +1,249 @@
+/*
+ * Copyright © 2026 Educards Learning, SL.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.educards.android.dialogflow;
+
+import com.google.api.gax.core.NoCredentialsProvider;
+import com.google.api.gax.grpc.GrpcTransportChannel;
+import com.google.api.gax.rpc.FixedTransportChannelProvider;
+import com.google.cloud.dialogflow.v2.Intent;
+import com.google.cloud.dialogflow.v2.QueryResult;
+import com.google.cloud.dialogflow.v2.SessionsSettings;
+import com.google.cloud.dialogflow.v2.StreamingDetectIntentRequest;
+import com.google.cloud.dialogflow.v2.StreamingDetectIntentResponse;
+import com.google.cloud.dialogflow.v2.StreamingRecognitionResult;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.grpc.ManagedChannel;
+import io.grpc.MethodDescriptor;
+import io.grpc.Server;
+import io.grpc.ServerServiceDefinition;
+import io.grpc.Status;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.protobuf.ProtoUtils;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.ServerCalls;
+import io.grpc.stub.StreamObserver;
+
+/**
+ * In-process stand-in of the Dialogflow <code>Sessions</code> service. Each streaming call answers like the real server:
+ * a transcript and <code>END_OF_SINGLE_UTTERANCE</code> once enough audio has been received
+ * and the detected {@link #INTENT} once the client half-closes the stream.
+ * A fraction of the calls fails with <code>UNAVAILABLE</code> (see {@link #setFailureRate(double)}).
+ * Misbehaving servers are simulated by {@link #setRecognition(Recognition)} and {@link #setAnswerHalfClose(boolean)}.
+ */
+class FakeSessionsServer implements AutoCloseable {
+
+    static final String INTENT = "test.intent";
+
+    /**
+     * What the server recognizes in the received audio.
+     */
+    enum Recognition {
+
+        /**
+         * Transcript and <code>END_OF_SINGLE_UTTERANCE</code> once enough audio has been received.
+         */
+        UTTERANCE,
+
+        /**
+         * Transcript once enough audio has been received, but the end of utterance is never reported.
+         */
+        ENDLESS_SPEECH,
+
+        /**
+         * Neither transcript nor end of utterance is ever reported.
+         */
+        NO_SPEECH
+    }
+
+    private static final String SERVICE = "google.cloud.dialogflow.v2.Sessions";
+
+    private static final MethodDescriptor<StreamingDetectIntentRequest, StreamingDetectIntentResponse> STREAMING_DETECT_INTENT =
+            MethodDescriptor.<StreamingDetectIntentRequest, StreamingDetectIntentResponse>newBuilder()
+                    .setType(MethodDescriptor.MethodType.BIDI_STREAMING)
+                    .setFullMethodName(MethodDescriptor.generateFullMethodName(SERVICE, "StreamingDetectIntent"))
+                    .setRequestMarshaller(ProtoUtils.marshaller(StreamingDetectIntentRequest.getDefaultInstance()))
+                    .setResponseMarshaller(ProtoUtils.marshaller(StreamingDetectIntentResponse.getDefaultInstance()))
+                    .build();
+
+    private final Server server;
+    private final ManagedChannel channel;
+
+    private final AtomicInteger openCalls = new AtomicInteger();
+    private final AtomicInteger totalCalls = new AtomicInteger();
+
+    private final Random random = new Random(42);
+    private volatile int audioRequestsPerUtterance = 5;
+    private volatile double failureRate;
+    private volatile Recognition recognition = Recognition.UTTERANCE;
+    private volatile boolean answerHalfClose = true;
+
+    FakeSessionsServer() throws IOException {
+        String name = InProcessServerBuilder.generateName();
+        server = InProcessServerBuilder.forName(name)
+                .addService(ServerServiceDefinition.builder(SERVICE)
+                        .addMethod(STREAMING_DETECT_INTENT, ServerCalls.asyncBidiStreamingCall(this::streamingDetectIntent))
+                        .build())
+                .build()
+                .start();
+        channel = InProcessChannelBuilder.forName(name).build();
+    }
+
+    /**
+     * @return Settings of a client connected to this server. The channel is shared by all the clients
+     *         and it's closed by {@link #close()} only.
+     */
+    SessionsSettings newSessionsSettings() throws IOException {
+        return SessionsSettings.newBuilder()
+                .setCredentialsProvider(NoCredentialsProvider.create())
+                .setTransportChannelProvider(FixedTransportChannelProvider.create(GrpcTransportChannel.create(channel)))
+                .build();
+    }
+
+    /**
+     * @param audioRequestsPerUtterance Number of audio requests after which the end of utterance is reported.
+     */
+    void setAudioRequestsPerUtterance(int audioRequestsPerUtterance) {
+        this.audioRequestsPerUtterance = audioRequestsPerUtterance;
+    }
+
+    void setFailureRate(double failureRate) {
+        this.failureRate = failureRate;
+    }
+
+    void setRecognition(Recognition recognition) {
+        this.recognition = recognition;
+    }
+
+    /**
+     * @param answerHalfClose <code>false</code> to keep the call open without any result once the client
+     *                        half-closes the stream (until the client cancels it).
+     */
+    void setAnswerHalfClose(boolean answerHalfClose) {
+        this.answerHalfClose = answerHalfClose;
+    }
+
+    /**
+     * @return Number of streaming calls which haven't been completed (or cancelled) on the server side.
+     */
+    int getOpenCallCount() {
+        return openCalls.get();
+    }
+
+    int getTotalCallCount() {
+        return totalCalls.get();
+    }
+
+    private boolean nextFailure() {
+        synchronized (random) {
+            return random.nextDouble() < failureRate;
+        }
+    }
+
+    private StreamObserver<StreamingDetectIntentRequest> streamingDetectIntent(StreamObserver<StreamingDetectIntentResponse> responses) {
+
+        openCalls.incrementAndGet();
+        totalCalls.incrementAndGet();
+        boolean fail = nextFailure();
+
+        // Once half-closed the request observer isn't notified of the cancellation anymore.
+        AtomicBoolean finished = new AtomicBoolean();
+        ((ServerCallStreamObserver<StreamingDetectIntentResponse>) responses).setOnCancelHandler(() -> {
+            if (finished.compareAndSet(false, true)) openCalls.decrementAndGet();
+        });
+
+        return new StreamObserver<StreamingDetectIntentRequest>() {
+
+            private int audioRequests;
+
+            @Override
+            public void onNext(StreamingDetectIntentRequest request) {
+                if (finished.get() || request.getInputAudio().isEmpty()) {
+                    // the first request carries the audio config only
+                    return;
+                }
+                if (fail) {
+                    finish();
+                    responses.onError(Status.UNAVAILABLE.withDescription("Injected failure").asRuntimeException());
+                    return;
+                }
+                Recognition recognition = FakeSessionsServer.this.recognition;
+                if (++audioRequests == audioRequestsPerUtterance && recognition != Recognition.NO_SPEECH) {
+                    responses.onNext(StreamingDetectIntentResponse.newBuilder()
+                            .setRecognitionResult(StreamingRecognitionResult.newBuilder()
+                                    .setMessageType(StreamingRecognitionResult.MessageType.TRANSCRIPT)
+                                    .setTranscript("hello"))
+                            .build());
+                    if (recognition == Recognition.ENDLESS_SPEECH) {
+                        return;
+                    }
+                    responses.onNext(StreamingDetectIntentResponse.newBuilder()
+                            .setRecognitionResult(StreamingRecognitionResult.newBuilder()
+                                    .setMessageType(StreamingRecognitionResult.MessageType.END_OF_SINGLE_UTTERANCE))
+                            .build());
+                }
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                // cancelled by the client
+                finish();
+            }
+
+            @Override
+            public void onCompleted() {
+                if (!answerHalfClose) {
+                    // the call is finished once cancelled by the client
+                    return;
+                }
+                if (!finish()) {
+                    return;
+                }
+                responses.onNext(StreamingDetectIntentResponse.newBuilder()
+                        .setQueryResult(QueryResult.newBuilder()
+                                .setQueryText("hello")
+                                .setIntent(Intent.newBuilder().setDisplayName(INTENT))
+                                .setIntentDetectionConfidence(1f))
+                        .build());
+                responses.onCompleted();
+            }
+
+            private boolean finish() {
+                if (!finished.compareAndSet(false, true)) {
+                    return false;
+                }
+                openCalls.decrementAndGet();
+                return true;
+            }
+        };
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        channel.shutdownNow();
+        server.shutdownNow();
+        channel.awaitTermination(5, TimeUnit.SECONDS);
+        server.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright © 2026 Educards Learning, SL.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.educards.android.dialogflow;
+
+import static com.educards.android.dialogflow.AgentExport.param;
+import static com.educards.android.dialogflow.AgentExport.phrase;
+import static com.educards.android.dialogflow.AgentExport.text;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.json.JSONArray;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Random;
+
+/**
+ * Measures build time, memory footprint and query throughput of {@link LocalIntentClassifier}
+ * on a synthetic agent of {@link #INTENTS} intents with {@link #PHRASES_PER_INTENT} training phrases each.
+ *
+ * <p>Results are logged (<code>adb logcat -s LocalIntentClassifierBM</code>). The assertions
+ * are generous bounds catching regressions by an order of magnitude, not precise targets.</p>
+ */
+@RunWith(AndroidJUnit4.class)
+public class LocalIntentClassifierBenchmark {
+
+    private static final String TAG = "LocalIntentClassifierBM";
+
+    private static final int INTENTS = 200;
+    private static final int PHRASES_PER_INTENT = 50;
+    private static final int WORDS_PER_PHRASE = 6;
+    private static final int VOCABULARY = 2000;
+
+    private static final int WARMUP_QUERIES = 2_000;
+    private static final int QUERIES = 20_000;
+
+    /**
+     * Queries are answered in microseconds: ~100 us on a desktop JVM, the bound leaves room for slower devices.
+     */
+    private static final double MAX_MICROS_PER_QUERY = 1_000;
+
+    private static AgentExport agent;
+    private static String[] queries;
+
+    @BeforeClass
+    public static void createAgent() throws Exception {
+        Random random = new Random(42);
+
+        String[] cities = new String[50];
+        for (int i = 0; i < cities.length; i++) cities[i] = "city" + i;
+
+        agent = new AgentExport("en").entity("city", cities);
+        for (int i = 0; i < INTENTS; i++) {
+            JSONArray[] phrases = new JSONArray[PHRASES_PER_INTENT];
+            for (int p = 0; p < PHRASES_PER_INTENT; p++) {
+                phrases[p] = phrase(
+                        text(randomWords(random, WORDS_PER_PHRASE / 2) + " "),
+                        param("city0", "@city", "city"),
+                        text(" " + randomWords(random, WORDS_PER_PHRASE / 2) + " "),
+                        param("1", "@sys.number", "number"));
+            }
+            agent.intent("intent" + i, new String[0], "Fulfillment " + i, phrases);
+        }
+
+        queries = new String[1000];
+        for (int i = 0; i < queries.length; i++) {
+            queries[i] = randomWords(random, WORDS_PER_PHRASE / 2) + " " + cities[random.nextInt(cities.length)]
+                    + " " + randomWords(random, WORDS_PER_PHRASE / 2) + " " + random.nextInt(100);
+        }
+    }
+
+    private static String randomWords(Random random, int count) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) sb.append(' ');
+            sb.append('w').append(random.nextInt(VOCABULARY));
+        }
+        return sb.toString();
+    }
+
+    @Test
+    public void buildTimeAndMemory() throws Exception {
+
+        // Warm up the parser
+        agent.build();
+
+        Runtime runtime = Runtime.getRuntime();
+        long heapBefore = usedHeap(runtime);
+        LocalIntentClassifier classifier = agent.build();
+        long heapAfter = usedHeap(runtime);
+
+        Log.i(TAG, String.format("Build [millis=%d, indexBytes=%d, heapBytes=%d, classifier=%s]",
+                classifier.getBuildMillis(), classifier.getIndexBytes(), heapAfter - heapBefore, classifier));
+
+        assertEquals(INTENTS, classifier.getIntentCount());
+        assertEquals(INTENTS * PHRASES_PER_INTENT, classifier.getPhraseCount());
+        assertTrue("Build too slow: " + classifier.getBuildMillis() + " ms", classifier.getBuildMillis() < 10_000);
+        // Index arrays must not dominate the heap: 10k phrases x ~12 features
+        assertTrue("Index too large: " + classifier.getIndexBytes() + " B", classifier.getIndexBytes() < 4 * 1024 * 1024);
+    }
+
+    @Test
+    public void queryThroughput() throws Exception {
+
+        LocalIntentClassifier classifier = agent.build();
+
+        int matched = 0;
+        for (int i = 0; i < WARMUP_QUERIES; i++) {
+            classifier.classify(queries[i % queries.length]);
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < QUERIES; i++) {
+            if (classifier.classify(queries[i % queries.length]).getIntentDetectionConfidence() > 0) matched++;
+        }
+        long nanos = System.nanoTime() - start;
+
+        double queriesPerSecond = QUERIES * 1e9 / nanos;
+        double microsPerQuery = nanos / 1e3 / QUERIES;
+        Log.i(TAG, String.format("Query [queries=%d, matched=%d, microsPerQuery=%.1f, queriesPerSecond=%.0f]",
+                QUERIES, matched, microsPerQuery, queriesPerSecond));
+
+        assertTrue("No query matched", matched > 0);
+        assertTrue("Classification too slow: " + microsPerQuery + " us/query", microsPerQuery < MAX_MICROS_PER_QUERY);
+    }
+
+    private static long usedHeap(Runtime runtime) throws InterruptedException {
+        for (int i = 0; i < 3; i++) {
+            runtime.gc();
+            Thread.sleep(50);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+}
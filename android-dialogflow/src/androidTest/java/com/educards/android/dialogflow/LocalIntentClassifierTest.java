@@ -0,0 +1,124 @@
+/*
+ * Copyright © 2026 Educards Learning, SL.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.educards.android.dialogflow;
+
+import static com.educards.android.dialogflow.AgentExport.param;
+import static com.educards.android.dialogflow.AgentExport.phrase;
+import static com.educards.android.dialogflow.AgentExport.text;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.google.protobuf.Value;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+@RunWith(AndroidJUnit4.class)
+public class LocalIntentClassifierTest {
+
+    private static final String[] NO_CONTEXTS = new String[0];
+
+    @Test
+    public void repeatedEntityIsBoundByOccurrence() throws Exception {
+        LocalIntentClassifier classifier = new AgentExport("en")
+                .entity("city", "prague", "madrid", "berlin")
+                .intent("book.flight", NO_CONTEXTS, "Booking the flight",
+                        phrase(text("book a flight from "), param("prague", "@city", "from-city"),
+                                text(" to "), param("madrid", "@city", "to-city")))
+                .build();
+
+        DialogflowIntentResponse response = classifier.classify("Book a flight from Berlin to Prague");
+
+        assertEquals("book.flight", response.getIntentName());
+        assertEquals("berlin", response.getParameterFieldString("from-city"));
+        assertEquals("prague", response.getParameterFieldString("to-city"));
+    }
+
+    @Test
+    public void parameterReferencedTwiceIsList() throws Exception {
+        LocalIntentClassifier classifier = new AgentExport("en")
+                .intent("add.numbers", NO_CONTEXTS, "",
+                        phrase(text("add "), param("1", "@sys.number", "number"),
+                                text(" and "), param("2", "@sys.number", "number")))
+                .build();
+
+        Value numbers = classifier.classify("add 3 and 4").getParameterField("number");
+
+        assertEquals(2, numbers.getListValue().getValuesCount());
+        assertEquals(3.0, numbers.getListValue().getValues(0).getNumberValue(), 0);
+        assertEquals(4.0, numbers.getListValue().getValues(1).getNumberValue(), 0);
+    }
+
+    @Test
+    public void intentWithInputContextIsLeftToServer() throws Exception {
+        LocalIntentClassifier classifier = new AgentExport("en")
+                .intent("order.confirm", new String[]{"order-followup"}, "Order confirmed",
+                        phrase(text("yes please")))
+                .intent("greeting", NO_CONTEXTS, "Hello",
+                        phrase(text("hello there")))
+                .build();
+
+        assertEquals(1, classifier.getContextualIntentCount());
+
+        DialogflowIntentResponse contextual = classifier.classify("yes please");
+        assertEquals("unknown", contextual.getIntentName());
+        assertEquals(0, contextual.getIntentDetectionConfidence(), 0);
+
+        DialogflowIntentResponse greeting = classifier.classify("hello there");
+        assertEquals("greeting", greeting.getIntentName());
+        assertTrue(greeting.getIntentDetectionConfidence() > 0.9);
+    }
+
+    @Test
+    public void reusedQueryBuffersDontLeakBetweenQueries() throws Exception {
+        LocalIntentClassifier classifier = new AgentExport("en")
+                .entity("city", "prague", "madrid", "berlin")
+                .intent("book.flight", NO_CONTEXTS, "Booking the flight",
+                        phrase(text("book a flight to "), param("prague", "@city", "to-city")))
+                .intent("weather", NO_CONTEXTS, "Sunny",
+                        phrase(text("what is the weather in "), param("madrid", "@city", "city")))
+                .build();
+
+        String[] queries = {"book a flight to berlin", "what is the weather in prague", "unknown words only"};
+        DialogflowIntentResponse[] expected = new DialogflowIntentResponse[queries.length];
+        for (int i = 0; i < queries.length; i++) {
+            expected[i] = classifier.classify(queries[i]);
+        }
+        assertEquals("book.flight", expected[0].getIntentName());
+        assertEquals("weather", expected[1].getIntentName());
+        assertEquals(0, expected[2].getIntentDetectionConfidence(), 0);
+
+        // Same answers whatever was classified before and from whichever thread.
+        DetectorLifecycleStressTest.runConcurrently(500,
+                () -> assertSameAnswers(classifier, queries, expected),
+                () -> assertSameAnswers(classifier, queries, expected),
+                () -> assertSameAnswers(classifier, queries, expected));
+    }
+
+    private static void assertSameAnswers(LocalIntentClassifier classifier, String[] queries, DialogflowIntentResponse[] expected) {
+        for (int i = queries.length - 1; i >= 0; i--) {
+            DialogflowIntentResponse response = classifier.classify(queries[i]);
+            assertEquals(expected[i].getIntentName(), response.getIntentName());
+            assertEquals(expected[i].getIntentDetectionConfidence(), response.getIntentDetectionConfidence(), 0);
+            assertEquals(expected[i].getParameterFieldString("to-city"), response.getParameterFieldString("to-city"));
+            assertEquals(expected[i].getParameterFieldString("city"), response.getParameterFieldString("city"));
+        }
+    }
+
+}
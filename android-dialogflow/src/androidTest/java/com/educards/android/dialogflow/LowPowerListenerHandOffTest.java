@@ -0,0 +1,196 @@
+/*
+ * Copyright © 2026 Educards Learning, SL.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.educards.android.dialogflow;
+
+import static com.educards.android.dialogflow.DetectorLifecycleStressTest.await;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.educards.android.audiorec.AudioSource;
+import com.educards.android.audiorec.EnergyTrigger;
+import com.educards.android.audiorec.LowPowerListener;
+import com.google.cloud.dialogflow.v2.SessionName;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Verifies the hand-off between the idle tier of {@link LowPowerListener} and the intent detection
+ * and the lifecycle of the listener driven by {@link DialogflowIntentDetector#startListening}.
+ */
+@RunWith(AndroidJUnit4.class)
+public class LowPowerListenerHandOffTest {
+
+    private static final long TIMEOUT_MS = 10_000;
+
+    private FakeSessionsServer server;
+    private CallbackOrderRecorder recorder;
+    private DialogflowIntentDetector detector;
+
+    @Before
+    public void setUp() throws Exception {
+        FakeAudioSource.resetCounters();
+        server = new FakeSessionsServer();
+        recorder = new CallbackOrderRecorder();
+        detector = new DialogflowIntentDetector(
+                InstrumentationRegistry.getInstrumentation().getTargetContext(),
+                server.newSessionsSettings(),
+                SessionName.of("test-project", "low-power"),
+                "en-US",
+                recorder);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        detector.close();
+        server.close();
+    }
+
+    @Test
+    public void triggerHandsOffToDetectionAndBack() throws Exception {
+
+        // 2 s of silence (idle tier), a tone which fires the trigger and silence again.
+        // The tone fits in a single idle frame, so the detection is triggered once.
+        // The utterance outlasts the pre-roll (2 idle frames), so the active tier reads the mic too.
+        server.setAudioRequestsPerUtterance(20);
+        assertTrue(detector.startListening(new EnergyTrigger(), new FakeAudioSource(2000, 200, 10)));
+        LowPowerListener listener = detector.getLowPowerListener();
+
+        await("intent detection to be triggered", () -> recorder.getStartCount() == 1);
+        await("intent detection to finish", () -> recorder.isIdle() && !detector.isRunning());
+        await("listener back in the idle tier", () -> listener.getActiveStats().getWakeups() > 0);
+
+        assertEquals(LowPowerListener.State.LISTENING, listener.getState());
+        assertEquals(1, recorder.getStartCount());
+        assertEquals(1, recorder.getIntentCount());
+        assertTrue(listener.getIdleStats().getWakeups() > 0);
+
+        CountDownLatch stopped = new CountDownLatch(1);
+        detector.stopListening(stopped::countDown);
+        assertTrue("Listener not stopped", stopped.await(TIMEOUT_MS, TimeUnit.MILLISECONDS));
+
+        assertEquals(LowPowerListener.State.STOPPED, listener.getState());
+        assertEquals("Overlapping recordings", 1, FakeAudioSource.getMaxConcurrentRecordings());
+        assertEquals("Unreleased audio sources", 0, FakeAudioSource.getUnreleasedCount());
+        assertEquals("Audio sources released more than once", 0, FakeAudioSource.getRedundantReleaseCount());
+        assertEquals("Callback order violations: " + recorder.getViolations(), 0, recorder.getViolations().size());
+    }
+
+    @Test
+    public void restartRefusedUntilMicReleased() throws Exception {
+
+        // Realtime pace, i.e. each idle read blocks for 500 ms.
+        assertTrue(detector.startListening(new EnergyTrigger(), new FakeAudioSource(0, 1)));
+        LowPowerListener first = detector.getLowPowerListener();
+
+        CountDownLatch stopped = new CountDownLatch(1);
+        detector.stopListening(stopped::countDown);
+
+        // The listening thread is still blocked in read and holds the mic.
+        assertEquals(LowPowerListener.State.STOP_REQUESTED, first.getState());
+        assertFalse(detector.startListening(new EnergyTrigger(), new FakeAudioSource(0, 1)));
+
+        assertTrue("Listener not stopped", stopped.await(TIMEOUT_MS, TimeUnit.MILLISECONDS));
+        assertEquals(LowPowerListener.State.STOPPED, first.getState());
+
+        assertTrue(detector.startListening(new EnergyTrigger(), new FakeAudioSource(0, 10)));
+        CountDownLatch restartedStopped = new CountDownLatch(1);
+        detector.stopListening(restartedStopped::countDown);
+        assertTrue("Listener not stopped", restartedStopped.await(TIMEOUT_MS, TimeUnit.MILLISECONDS));
+
+        assertEquals("Overlapping recordings", 1, FakeAudioSource.getMaxConcurrentRecordings());
+        assertEquals("Unreleased audio sources", 0, FakeAudioSource.getUnreleasedCount());
+        assertEquals("Audio sources released more than once", 0, FakeAudioSource.getRedundantReleaseCount());
+    }
+
+    @Test
+    public void refusedWhileDetectionRunning() throws Exception {
+
+        detector.startIntentDetection(thread -> thread.setAudioSource(new FakeAudioSource(300, 10)));
+        assertTrue(detector.isRunning());
+
+        assertFalse(detector.startListening(new EnergyTrigger(), new FakeAudioSource(0, 10)));
+        assertNull(detector.getLowPowerListener());
+
+        await("intent detection to finish", () -> recorder.isIdle() && !detector.isRunning());
+        assertEquals("Unreleased audio sources", 0, FakeAudioSource.getUnreleasedCount());
+        assertEquals("Audio sources released more than once", 0, FakeAudioSource.getRedundantReleaseCount());
+    }
+
+    @Test
+    public void sourceInitFailureDoesNotCrash() throws Exception {
+
+        AtomicReference<Throwable> uncaught = new AtomicReference<>();
+        Thread.UncaughtExceptionHandler previousHandler = Thread.getDefaultUncaughtExceptionHandler();
+        Thread.setDefaultUncaughtExceptionHandler((t, e) -> uncaught.set(e));
+
+        try {
+            AtomicInteger releases = new AtomicInteger();
+            AudioSource busySource = new AudioSource() {
+                @Override
+                public void startRecording() {
+                    throw new IllegalStateException("Mic is held by another AudioRecord");
+                }
+
+                @Override
+                public int read(byte[] audioData, int offset, int size) {
+                    return size;
+                }
+
+                @Override
+                public void stop() {
+                }
+
+                @Override
+                public void release() {
+                    releases.incrementAndGet();
+                }
+            };
+
+            assertTrue(detector.startListening(new EnergyTrigger(), busySource));
+            LowPowerListener listener = detector.getLowPowerListener();
+            await("listener to stop", listener::isStopped);
+
+            assertNull("Uncaught exception", uncaught.get());
+            assertEquals(1, releases.get());
+            assertEquals(0, recorder.getStartCount());
+
+            // The mic has been released, so listening can be started again.
+            assertTrue(detector.startListening(new EnergyTrigger(), new FakeAudioSource(0, 10)));
+            detector.stopListening();
+            await("listener to stop", () -> detector.getLowPowerListener().isStopped());
+            assertEquals("Unreleased audio sources", 0, FakeAudioSource.getUnreleasedCount());
+
+        } finally {
+            Thread.setDefaultUncaughtExceptionHandler(previousHandler);
+        }
+    }
+
+}
@@ -0,0 +1,205 @@
+/*
+ * Copyright © 2026 Educards Learning, SL.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.educards.android.audioplay;
+
+import android.media.AudioAttributes;
+import android.media.AudioFormat;
+import android.media.AudioManager;
+import android.media.AudioTrack;
+import android.os.Build;
+import android.util.Log;
+
+import com.educards.android.dialogflow.BuildConfig;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Player of 16-bit mono PCM audio based on Android's {@link AudioTrack} in streaming mode.
+ *
+ * <ul>
+ *     <li>{@link #play(byte[], int, int)} is non-blocking. Audio is written to {@link AudioTrack}
+ *         from a dedicated thread, so the playback starts as soon as the first chunk is written.</li>
+ *     <li>{@link AudioTrack} is created lazily and kept for the lifetime of the player
+ *         to avoid the setup latency of each playback.</li>
+ *     <li>{@link #stop()} takes effect immediately: the track is paused and flushed from the calling thread
+ *         and the audio enqueued so far is dropped (it's written in chunks no larger than the track buffer,
+ *         each checked against the playback generation).</li>
+ *     <li>{@link #release()} needs to be called to clean up resources.</li>
+ * </ul>
+ */
+public class AudioTrackPlayer {
+
+    private static final String TAG = "AudioTrackPlayer";
+
+    private final int sampleRate;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(
+            r -> new Thread(r, AudioTrackPlayer.class.getSimpleName()));
+
+    /**
+     * Incremented by {@link #stop()}. Audio enqueued within an older generation is dropped.
+     */
+    private final AtomicInteger generation = new AtomicInteger();
+
+    /**
+     * Guards {@link #audioTrack} against being paused (by {@link #stop()}) and released at the same time.
+     */
+    private final Object trackLock = new Object();
+
+    /**
+     * Created and written from {@link #executor} thread only.
+     */
+    private volatile AudioTrack audioTrack;
+
+    /**
+     * Size of a single {@link AudioTrack#write(byte[], int, int)}, at most the size of the track buffer,
+     * so that a chunk written just after {@link #stop()} fits the flushed buffer without blocking.
+     * Accessed from {@link #executor} thread only.
+     */
+    private int writeChunkBytes;
+
+    public AudioTrackPlayer(int sampleRate) {
+        this.sampleRate = sampleRate;
+    }
+
+    public int getSampleRate() {
+        return sampleRate;
+    }
+
+    /**
+     * Enqueues the audio to be played after all the previously enqueued audio.
+     */
+    public void play(byte[] pcm, int offset, int length) {
+        if (executor.isShutdown()) {
+            Log.w(TAG, "Playback requested on released player");
+            return;
+        }
+        int playGeneration = generation.get();
+        executor.execute(() -> {
+            if (generation.get() != playGeneration) {
+                return;
+            }
+            try {
+                AudioTrack track = getAudioTrack();
+                if (track.getPlayState() != AudioTrack.PLAYSTATE_PLAYING) {
+                    track.play();
+                }
+                int written = 0;
+                while (written < length) {
+                    int result = track.write(pcm, offset + written, Math.min(writeChunkBytes, length - written));
+                    if (generation.get() != playGeneration) {
+                        // Stopped meanwhile, the chunk might have been written after the flush.
+                        pauseAndFlush();
+                        return;
+                    }
+                    if (result <= 0) {
+                        Log.e(TAG, String.format("Audio playback failed [error=%d]", result));
+                        return;
+                    }
+                    written += result;
+                }
+            } catch (Throwable t) {
+                Log.e(TAG, "Audio playback failed", t);
+            }
+        });
+    }
+
+    /**
+     * Stops the playback and discards the audio enqueued so far.
+     * Doesn't wait for the audio being written, the track is paused and flushed right away.
+     */
+    public void stop() {
+        generation.incrementAndGet();
+        pauseAndFlush();
+    }
+
+    private void pauseAndFlush() {
+        synchronized (trackLock) {
+            AudioTrack track = audioTrack;
+            if (track != null) {
+                // Also returns from the write blocked on a full buffer.
+                track.pause();
+                track.flush();
+            }
+        }
+    }
+
+    public void release() {
+        if (executor.isShutdown()) {
+            return;
+        }
+        generation.incrementAndGet();
+        executor.execute(() -> {
+            synchronized (trackLock) {
+                if (audioTrack != null) {
+                    audioTrack.release();
+                    audioTrack = null;
+                }
+            }
+        });
+        executor.shutdown();
+    }
+
+    private AudioTrack getAudioTrack() {
+        if (audioTrack == null) {
+            if (BuildConfig.DEBUG) Log.d(TAG, String.format("Initializing AudioTrack [sampleRate=%d]", sampleRate));
+            audioTrack = initAudioTrack();
+        }
+        return audioTrack;
+    }
+
+    private AudioTrack initAudioTrack() {
+
+        int bufferSize = AudioTrack.getMinBufferSize(sampleRate, AudioFormat.CHANNEL_OUT_MONO, AudioFormat.ENCODING_PCM_16BIT);
+        writeChunkBytes = bufferSize;
+
+        AudioTrack track;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+            track = new AudioTrack.Builder()
+                    .setAudioAttributes(new AudioAttributes.Builder()
+                            .setUsage(AudioAttributes.USAGE_ASSISTANT)
+                            .setContentType(AudioAttributes.CONTENT_TYPE_SPEECH)
+                            .build())
+                    .setAudioFormat(new AudioFormat.Builder()
+                            .setEncoding(AudioFormat.ENCODING_PCM_16BIT)
+                            .setSampleRate(sampleRate)
+                            .setChannelMask(AudioFormat.CHANNEL_OUT_MONO)
+                            .build())
+                    .setBufferSizeInBytes(bufferSize)
+                    .setTransferMode(AudioTrack.MODE_STREAM)
+                    .setPerformanceMode(AudioTrack.PERFORMANCE_MODE_LOW_LATENCY)
+                    .build();
+        } else {
+            track = new AudioTrack(
+                    AudioManager.STREAM_MUSIC,
+                    sampleRate,
+                    AudioFormat.CHANNEL_OUT_MONO,
+                    AudioFormat.ENCODING_PCM_16BIT,
+                    bufferSize,
+                    AudioTrack.MODE_STREAM);
+        }
+
+        if (track.getState() != AudioTrack.STATE_INITIALIZED) {
+            throw new RuntimeException(String.format("AudioTrack initialization failed " +
+                    "[AudioTrack.state=%d]", track.getState()));
+        }
+
+        return track;
+    }
+}
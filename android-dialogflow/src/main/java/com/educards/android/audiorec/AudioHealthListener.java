@@ -0,0 +1,39 @@
+/*
+ * Copyright © 2026 Educards Learning, SL.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.educards.android.audiorec;
+
+/**
+ * Optional per-frame listener of {@link AudioHealthMonitor}.
+ * Called synchronously from {@link AudioRecordingThread}, therefore it shouldn't be blocking.
+ *
+ * @see AudioHealthMonitor#setListener(AudioHealthListener)
+ */
+public interface AudioHealthListener {
+
+    /**
+     * Called after each successful {@link android.media.AudioRecord#read(byte[], int, int) read}.
+     * Metrics of the frame are available via {@link AudioHealthMonitor#getLastReadNanos()},
+     * {@link AudioHealthMonitor#getLastRms()}, {@link AudioHealthMonitor#getLastPeak()}, etc.
+     */
+    void onAudioFrame(AudioHealthMonitor monitor, int bytesRead);
+
+    /**
+     * Called if {@link android.media.AudioRecord#read(byte[], int, int) read} returned an error code.
+     */
+    void onAudioReadError(AudioHealthMonitor monitor, int errorCode);
+
+}
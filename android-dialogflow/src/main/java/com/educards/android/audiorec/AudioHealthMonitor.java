@@ -0,0 +1,260 @@
+/*
+ * Copyright © 2026 Educards Learning, SL.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.educards.android.audiorec;
+
+import javax.annotation.Nullable;
+
+/**
+ * Health monitor of the realtime audio capture done by {@link AudioRecordingThread}.
+ *
+ * <ul>
+ *     <li>Tracks duration and jitter of {@link android.media.AudioRecord#read(byte[], int, int) read} calls,
+ *         short reads and error codes.</li>
+ *     <li>Tracks the drift between the audio time (bytes captured) and the wall clock.
+ *         Growing drift means the capture falls behind realtime and frames are being dropped.</li>
+ *     <li>Optionally meters RMS and peak levels of each frame (see {@link #setLevelMeteringEnabled(boolean)}).</li>
+ * </ul>
+ *
+ * <p>Metrics are written by the recording thread only and may be read from any thread.
+ * No allocation nor locking is done per frame.</p>
+ *
+ * @see AudioRecordingThread#getHealthMonitor()
+ */
+public class AudioHealthMonitor {
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private static final int BYTES_PER_SAMPLE = 2;
+
+    /**
+     * Gain of the interarrival jitter estimator (see RFC 3550, section 6.4.1).
+     */
+    private static final int JITTER_GAIN = 16;
+
+    private volatile boolean levelMeteringEnabled = true;
+
+    @Nullable
+    private volatile AudioHealthListener listener;
+
+    private long startNanos;
+    private long lastReadEndNanos;
+    private long baselineLagNanos;
+
+    private volatile long frames;
+    private volatile long bytes;
+    private volatile long shortReads;
+    private volatile long errors;
+    private volatile int lastError;
+
+    private volatile long lastReadNanos;
+    private volatile long maxReadNanos;
+    private volatile long totalReadNanos;
+    private volatile long jitterNanos;
+
+    private volatile long driftNanos;
+    private volatile long maxDriftNanos;
+
+    private volatile double lastRms;
+    private volatile int lastPeak;
+
+    /**
+     * Enables/disables computation of {@link #getLastRms()} and {@link #getLastPeak()}.
+     */
+    public void setLevelMeteringEnabled(boolean levelMeteringEnabled) {
+        this.levelMeteringEnabled = levelMeteringEnabled;
+    }
+
+    public boolean isLevelMeteringEnabled() {
+        return levelMeteringEnabled;
+    }
+
+    public void setListener(@Nullable AudioHealthListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Called by {@link AudioRecordingThread} right after the recording has started.
+     */
+    void onRecordingStarted(long nanos) {
+        startNanos = nanos;
+        lastReadEndNanos = nanos;
+    }
+
+    /**
+     * Called by {@link AudioRecordingThread} after each read.
+     *
+     * @param result Value returned by {@link android.media.AudioRecord#read(byte[], int, int)}.
+     */
+    void onRead(long readStartNanos, long readEndNanos, byte[] buffer, int requested, int result) {
+
+        if (result < 0) {
+            errors++;
+            lastError = result;
+            AudioHealthListener l = listener;
+            if (l != null) l.onAudioReadError(this, result);
+            return;
+        }
+
+        long readNanos = readEndNanos - readStartNanos;
+        lastReadNanos = readNanos;
+        totalReadNanos += readNanos;
+        if (readNanos > maxReadNanos) maxReadNanos = readNanos;
+
+        if (result < requested) shortReads++;
+
+        frames++;
+        bytes += result;
+
+        // Interarrival jitter: deviation of the interval between reads
+        // from the duration of audio delivered by the read.
+        long interval = readEndNanos - lastReadEndNanos;
+        long deviation = Math.abs(interval - bytesToNanos(result));
+        jitterNanos += (deviation - jitterNanos) / JITTER_GAIN;
+        lastReadEndNanos = readEndNanos;
+
+        // The first read includes the startup latency of AudioRecord
+        // which is used as a baseline of the drift.
+        long lag = (readEndNanos - startNanos) - bytesToNanos(bytes);
+        if (frames == 1) baselineLagNanos = lag;
+        long drift = lag - baselineLagNanos;
+        driftNanos = drift;
+        if (drift > maxDriftNanos) maxDriftNanos = drift;
+
+        if (levelMeteringEnabled) {
+            meterLevels(buffer, result);
+        }
+
+        AudioHealthListener l = listener;
+        if (l != null) l.onAudioFrame(this, result);
+    }
+
+    private void meterLevels(byte[] buffer, int length) {
+        if (length < BYTES_PER_SAMPLE) return;
+
+        lastRms = PcmLevels.rms(buffer, length);
+        lastPeak = PcmLevels.peak(buffer, length);
+    }
+
+    private static long bytesToNanos(long bytes) {
+        return bytes * NANOS_PER_SECOND / (AudioRecordingConstants.SAMPLE_RATE * BYTES_PER_SAMPLE);
+    }
+
+    /**
+     * @return Number of successful reads.
+     */
+    public long getFrames() {
+        return frames;
+    }
+
+    /**
+     * @return Number of bytes captured.
+     */
+    public long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * @return Number of reads which returned less data than requested.
+     */
+    public long getShortReads() {
+        return shortReads;
+    }
+
+    /**
+     * @return Number of reads which returned an error code.
+     */
+    public long getErrors() {
+        return errors;
+    }
+
+    /**
+     * @return Last error code returned by {@link android.media.AudioRecord#read(byte[], int, int)} or <code>0</code>.
+     */
+    public int getLastError() {
+        return lastError;
+    }
+
+    public long getLastReadNanos() {
+        return lastReadNanos;
+    }
+
+    public long getMaxReadNanos() {
+        return maxReadNanos;
+    }
+
+    public long getAverageReadNanos() {
+        long f = frames;
+        return f == 0 ? 0 : totalReadNanos / f;
+    }
+
+    /**
+     * @return Smoothed interarrival jitter of the reads.
+     */
+    public long getJitterNanos() {
+        return jitterNanos;
+    }
+
+    /**
+     * @return How far the captured audio is currently behind the wall clock.
+     */
+    public long getDriftNanos() {
+        return driftNanos;
+    }
+
+    public long getMaxDriftNanos() {
+        return maxDriftNanos;
+    }
+
+    /**
+     * @return Estimate of frames ({@link AudioRecordingConstants#BUFFER_SIZE} long) dropped so far,
+     *         derived from {@link #getMaxDriftNanos()}.
+     */
+    public long getEstimatedDroppedFrames() {
+        return maxDriftNanos / bytesToNanos(AudioRecordingConstants.BUFFER_SIZE);
+    }
+
+    /**
+     * @return RMS level of the last frame (in 16-bit sample units).
+     */
+    public double getLastRms() {
+        return lastRms;
+    }
+
+    /**
+     * @return Peak level of the last frame (in 16-bit sample units).
+     */
+    public int getLastPeak() {
+        return lastPeak;
+    }
+
+    @Override
+    public String toString() {
+        return "AudioHealthMonitor{" +
+                "frames=" + frames +
+                ", bytes=" + bytes +
+                ", shortReads=" + shortReads +
+                ", errors=" + errors +
+                ", lastError=" + lastError +
+                ", avgReadNanos=" + getAverageReadNanos() +
+                ", maxReadNanos=" + maxReadNanos +
+                ", jitterNanos=" + jitterNanos +
+                ", driftNanos=" + driftNanos +
+                ", maxDriftNanos=" + maxDriftNanos +
+                '}';
+    }
+
+}
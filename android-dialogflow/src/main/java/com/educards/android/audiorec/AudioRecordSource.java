@@ -0,0 +1,73 @@
+/*
+ * Copyright © 2026 Educards Learning, SL.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.educards.android.audiorec;
+
+import android.media.AudioFormat;
+import android.media.AudioRecord;
+import android.media.MediaRecorder;
+
+/**
+ * Default {@link AudioSource} which records from mic by Android's {@link AudioRecord}.
+ */
+public class AudioRecordSource implements AudioSource {
+
+    private final AudioRecord audioRecord;
+
+    public AudioRecordSource(int bufferSize) {
+        this.audioRecord = initAudioRecord(bufferSize);
+    }
+
+    @Override
+    public void startRecording() {
+        audioRecord.startRecording();
+    }
+
+    @Override
+    public int read(byte[] audioData, int offset, int size) {
+        return audioRecord.read(audioData, offset, size);
+    }
+
+    @Override
+    public void stop() {
+        audioRecord.stop();
+    }
+
+    @Override
+    public void release() {
+        audioRecord.release();
+    }
+
+    private static AudioRecord initAudioRecord(int bufferSize) {
+
+        AudioRecord audioRecord = new AudioRecord(
+                MediaRecorder.AudioSource.DEFAULT,
+                AudioRecordingConstants.SAMPLE_RATE,
+                AudioFormat.CHANNEL_IN_MONO,
+                AudioFormat.ENCODING_PCM_16BIT,
+                bufferSize);
+
+        if (audioRecord.getState() != AudioRecord.STATE_INITIALIZED) {
+            RuntimeException e = new RuntimeException(String.format("AudioRecord initialization failed " +
+                            "[AudioRecord.state=%d, AudioRecord.recordingState=%d]",
+                    audioRecord.getState(), audioRecord.getRecordingState()));
+            audioRecord.release();
+            throw e;
+        }
+
+        return audioRecord;
+    }
+}
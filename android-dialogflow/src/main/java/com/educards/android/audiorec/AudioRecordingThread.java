@@ -16,15 +16,15 @@
 
 package com.educards.android.audiorec;
 
-import android.media.AudioFormat;
 import android.media.AudioRecord;
-import android.media.MediaRecorder;
 import android.util.Log;
 
 import com.educards.android.dialogflow.BuildConfig;
 
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import javax.annotation.Nullable;
 
@@ -32,6 +32,12 @@ import javax.annotation.Nullable;
  * Audio recording thread based on Android's {@link AudioRecord} with the support to stream data to the subscribed {@link AudioDataReceiver
  * receiver}.
  *
+ * <p>Each instance records at most once. Its lifecycle is kept in a single atomic {@link State}
+ * which is changed by CAS transitions only, therefore all the queries are lock-free.</p>
+ *
+ * <p>The recording stops on its own (as if the stop has been requested) on a fatal read error
+ * such as {@link AudioRecord#ERROR_DEAD_OBJECT}, or if the reads keep failing.</p>
+ *
  * @see #startRecording()
  * @see #isRecording()
  * @see #requestStop(Runnable)
@@ -41,12 +47,45 @@ public class AudioRecordingThread {
 
     private static final String TAG = "AudioRecordingThread";
 
+    /**
+     * Number of consecutive non-fatal read errors after which the recording is aborted.
+     */
+    private static final int MAX_CONSECUTIVE_ERRORS = 10;
+
+    /**
+     * Lifecycle of {@link AudioRecordingThread}:
+     * <code>NEW &rarr; RECORDING &rarr; STOP_REQUESTED &rarr; STOPPED</code>.
+     * A stop requested prior to {@link #startRecording()} moves the thread directly from
+     * <code>NEW</code> to <code>STOPPED</code>.
+     */
+    public enum State {
+        NEW,
+        RECORDING,
+        STOP_REQUESTED,
+        STOPPED
+    }
+
+    /**
+     * Number of recording threads (of all instances) which haven't finished yet.
+     */
+    private static final AtomicInteger liveThreads = new AtomicInteger();
+
     private List<AudioDataReceiver> receivers;
 
-    private volatile boolean stopRequested;
-    private volatile Runnable stoppedCallback;
+    @Nullable
+    private volatile AudioSource audioSource;
+
+    private final AtomicReference<State> state = new AtomicReference<>(State.NEW);
+
+    /**
+     * Single purpose callback(s) invoked exactly once after the recording has been stopped.
+     */
+    private final AtomicReference<Runnable> stoppedCallback = new AtomicReference<>();
+
+    @Nullable
+    private volatile Runnable releasedCallback;
 
-    private Thread thread;
+    private final AudioHealthMonitor healthMonitor = new AudioHealthMonitor();
 
     public AudioRecordingThread() {
     }
@@ -66,123 +105,221 @@ public class AudioRecordingThread {
         }
     }
 
+    /**
+     * Sets custom source of the audio. Needs to be called prior to {@link #startRecording()}.
+     * If not set the {@link AudioRecordSource mic} is used.
+     */
+    public void setAudioSource(@Nullable AudioSource audioSource) {
+        this.audioSource = audioSource;
+    }
+
+    /**
+     * Sets the callback invoked on the recording thread once the recording has stopped
+     * and the audio source has been released, right before the thread becomes {@link State#STOPPED}
+     * (and before the {@link #requestStop(Runnable) stopped callbacks}).
+     * Unlike the stopped callbacks it isn't invoked if the recording has never started.
+     * Needs to be called prior to {@link #startRecording()}.
+     */
+    public void setReleasedCallback(@Nullable Runnable releasedCallback) {
+        this.releasedCallback = releasedCallback;
+    }
+
+    /**
+     * @return Number of recording threads (of all instances) which haven't finished yet.
+     *         Useful to detect leaked threads.
+     */
+    public static int getLiveThreadCount() {
+        return liveThreads.get();
+    }
+
     /**
      * <ul>
      *     <li>Starts new audio recording thread.</li>
      *     <li>Continuously publishes audio data to the subscribed receiver until
      *     {@link #requestStop(Runnable) recording stop} is requested.</li>
      * </ul>
+     *
+     * @return <code>false</code> if the recording has already been started or if the stop
+     *         has been requested before the recording could start.
      */
-    public void startRecording() {
+    public boolean startRecording() {
 
-        if (thread != null) {
-            Log.w(TAG, "Redundant request to start audio recording");
-            return;
+        if (!state.compareAndSet(State.NEW, State.RECORDING)) {
+            Log.w(TAG, String.format("Redundant request to start audio recording [state=%s]", state.get()));
+            return false;
         }
 
-        stopRequested = false;
-
-        thread = new Thread(() -> {
-            android.os.Process.setThreadPriority(android.os.Process.THREAD_PRIORITY_AUDIO);
-            record();
+        Thread thread = new Thread(() -> {
+            try {
+                android.os.Process.setThreadPriority(android.os.Process.THREAD_PRIORITY_AUDIO);
+                record();
+            } finally {
+                liveThreads.decrementAndGet();
+            }
         }, AudioRecordingThread.class.getSimpleName());
 
+        liveThreads.incrementAndGet();
         thread.start();
+        return true;
     }
 
     public void requestStop() {
         requestStop(null);
     }
 
+    /**
+     * Requests the stop of the recording.
+     * <code>stoppedCallback</code> is invoked exactly once after the recording has been stopped
+     * and all the receivers have been notified (immediately if the recording is already stopped).
+     */
     public void requestStop(@Nullable Runnable stoppedCallback) {
         if (BuildConfig.DEBUG) Log.d(TAG, "Audio recording stop requested");
 
-        if (thread == null)
+        addStoppedCallback(stoppedCallback);
+
+        if (!state.compareAndSet(State.RECORDING, State.STOP_REQUESTED)) {
+            if (state.compareAndSet(State.NEW, State.STOPPED)) {
+                // The recording thread will never run, therefore it won't release the source.
+                AudioSource source = audioSource;
+                if (source != null) source.release();
+            }
+        }
+
+        // The recording thread might have stopped before it could see our callback.
+        if (state.get() == State.STOPPED) {
+            runStoppedCallback();
+        }
+    }
+
+    private void addStoppedCallback(@Nullable Runnable callback) {
+        if (callback == null)
             return;
 
-        this.stoppedCallback = stoppedCallback;
-        this.stopRequested = true;
-        thread = null;
+        for (;;) {
+            Runnable prev = stoppedCallback.get();
+            Runnable next = prev == null ? callback : () -> {
+                prev.run();
+                callback.run();
+            };
+            if (stoppedCallback.compareAndSet(prev, next))
+                return;
+        }
+    }
+
+    private void runStoppedCallback() {
+        Runnable callback = stoppedCallback.getAndSet(null);
+        if (callback != null) {
+            callback.run();
+        }
+    }
+
+    /**
+     * @return Health metrics of the capture (read jitter, short reads, errors, drift, levels).
+     */
+    public AudioHealthMonitor getHealthMonitor() {
+        return healthMonitor;
+    }
+
+    public State getState() {
+        return state.get();
     }
 
     public boolean isStopRequested() {
-        return stopRequested;
+        State s = state.get();
+        return s == State.STOP_REQUESTED || s == State.STOPPED;
     }
 
     public boolean isRecording() {
-        return thread != null && thread.isAlive();
+        State s = state.get();
+        return s == State.RECORDING || s == State.STOP_REQUESTED;
+    }
+
+    /**
+     * @return <code>true</code> if the {@link AudioRecord} can't recover from the error
+     *         (the audio server has died, the recorder isn't initialized or the parameters are invalid).
+     */
+    private static boolean isFatalError(int errorCode) {
+        return errorCode == AudioRecord.ERROR_DEAD_OBJECT
+                || errorCode == AudioRecord.ERROR_INVALID_OPERATION
+                || errorCode == AudioRecord.ERROR_BAD_VALUE;
     }
 
     private void record() {
 
-        if (BuildConfig.DEBUG) Log.d(TAG, "Initializing AudioRecorder");
+        AudioSource source = null;
+        long bytesRead = 0;
+        int consecutiveErrors = 0;
 
-        byte[] audioBuffer = new byte[AudioRecordingConstants.BUFFER_SIZE];
-        AudioRecord audioRecord = initAudioRecord(audioBuffer.length);
+        try {
 
-        // Start
-        audioRecord.startRecording();
-        Log.v(TAG, "Recording started");
-        if (receivers != null) {
-            for (AudioDataReceiver receiver : receivers) receiver.onAudioRecordingStarted();
-        }
+            if (BuildConfig.DEBUG) Log.d(TAG, "Initializing AudioRecorder");
 
-        // Listen/record in loop
-        long bytesRead = 0;
-        while (!stopRequested) {
+            byte[] audioBuffer = new byte[AudioRecordingConstants.BUFFER_SIZE];
+            source = audioSource != null ? audioSource : new AudioRecordSource(audioBuffer.length);
+
+            // Start
+            source.startRecording();
+            healthMonitor.onRecordingStarted(System.nanoTime());
+            Log.v(TAG, "Recording started");
+            if (receivers != null) {
+                for (AudioDataReceiver receiver : receivers) receiver.onAudioRecordingStarted();
+            }
+
+            // Listen/record in loop
+            while (state.get() == State.RECORDING) {
 
-            int audioChunk = audioRecord.read(audioBuffer, 0, audioBuffer.length);
+                long readStartNanos = System.nanoTime();
+                int audioChunk = source.read(audioBuffer, 0, audioBuffer.length);
+                healthMonitor.onRead(readStartNanos, System.nanoTime(), audioBuffer, audioBuffer.length, audioChunk);
 
-            switch (audioChunk) {
-                case AudioRecord.ERROR_INVALID_OPERATION:
-                case AudioRecord.ERROR_BAD_VALUE:
-                case AudioRecord.ERROR_DEAD_OBJECT:
-                case AudioRecord.ERROR:
+                if (audioChunk < 0) {
                     Log.e(TAG, String.format("Audio recording failed [error=%d]", audioChunk));
                     // TODO Show this error also on UI somehow
-                    break;
-            }
 
-            bytesRead += audioChunk;
-            if (receivers != null) {
-                for (AudioDataReceiver receiver : receivers) receiver.onAudioDataReceived(audioBuffer, audioBuffer.length);
+                    // Retrying a fatal error would just spin without ever releasing the mic.
+                    if (isFatalError(audioChunk) || ++consecutiveErrors >= MAX_CONSECUTIVE_ERRORS) {
+                        Log.e(TAG, String.format("Audio recording aborted [error=%d, consecutiveErrors=%d]", audioChunk, consecutiveErrors));
+                        state.compareAndSet(State.RECORDING, State.STOP_REQUESTED);
+                        break;
+                    }
+                    continue;
+                }
+                consecutiveErrors = 0;
+
+                // Empty reads don't carry any audio data.
+                if (audioChunk == 0) {
+                    continue;
+                }
+
+                bytesRead += audioChunk;
+                if (receivers != null) {
+                    for (AudioDataReceiver receiver : receivers) receiver.onAudioDataReceived(audioBuffer, audioChunk);
+                }
             }
-        }
 
-        // Stop
+            // Stop
+            source.stop();
 
-        audioRecord.stop();
-        Log.v(TAG, String.format("Recording stopped [bytesRead=%d]", bytesRead));
+        } finally {
 
-        // This is a single purpose callback therefore
-        // we are releasing it immediately after the stop event is dispatched.
-        if (stoppedCallback != null) {
-            stoppedCallback.run();
-            stoppedCallback = null; // release
-        }
+            Log.v(TAG, String.format("Recording stopped [bytesRead=%d, health=%s]", bytesRead, healthMonitor));
 
-        if (receivers != null) {
-            for (AudioDataReceiver receiver : receivers) receiver.onAudioRecordingStopped();
-        }
-
-        audioRecord.release();
-    }
-
-    private AudioRecord initAudioRecord(int bufferSize) {
+            if (receivers != null) {
+                for (AudioDataReceiver receiver : receivers) receiver.onAudioRecordingStopped();
+            }
 
-        AudioRecord audioRecord = new AudioRecord(
-                MediaRecorder.AudioSource.DEFAULT,
-                AudioRecordingConstants.SAMPLE_RATE,
-                AudioFormat.CHANNEL_IN_MONO,
-                AudioFormat.ENCODING_PCM_16BIT,
-                bufferSize);
+            if (source != null) {
+                source.release();
+            }
 
-        if (audioRecord.getState() != AudioRecord.STATE_INITIALIZED) {
-            throw new RuntimeException(String.format("AudioRecord initialization failed " +
-                            "[AudioRecord.state=%d, AudioRecord.recordingState=%d]",
-                    audioRecord.getState(), audioRecord.getRecordingState()));
+            // The stopped callbacks are dispatched only after the receivers have been notified
+            // and the audio source has been released, so that the callback may safely start a new recording.
+            Runnable released = releasedCallback;
+            if (released != null) {
+                released.run();
+            }
+            state.set(State.STOPPED);
+            runStoppedCallback();
         }
-
-        return audioRecord;
     }
 }
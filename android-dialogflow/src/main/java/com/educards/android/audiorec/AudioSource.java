@@ -0,0 +1,45 @@
+/*
+ * Copyright © 2026 Educards Learning, SL.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.educards.android.audiorec;
+
+/**
+ * Source of the audio recorded by {@link AudioRecordingThread}.
+ * By default {@link AudioRecordSource} (mic) is used. Custom source (e.g. a file or a synthetic signal
+ * for testing) may be set by {@link AudioRecordingThread#setAudioSource(AudioSource)}.
+ *
+ * <p>For audio data definition see {@link AudioRecordingConstants}.
+ * All the methods are called from {@link AudioRecordingThread}.</p>
+ */
+public interface AudioSource {
+
+    void startRecording();
+
+    /**
+     * Blocks until the audio data are available.
+     * @return Number of bytes read or one of the {@link android.media.AudioRecord} error codes.
+     * @see android.media.AudioRecord#read(byte[], int, int)
+     */
+    int read(byte[] audioData, int offset, int size);
+
+    void stop();
+
+    /**
+     * Releases the resources. Called exactly once, even if the recording failed.
+     */
+    void release();
+
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright © 2026 Educards Learning, SL.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.educards.android.audiorec;
+
+/**
+ * Cheap energy based trigger which detects a sudden rise of the audio level above the noise floor.
+ *
+ * <ul>
+ *     <li>Designed for large frames read in low-power listening (see {@link LowPowerListener}).
+ *         The frame is split into short blocks so that a short burst isn't averaged out by the silence around.</li>
+ *     <li>Only every {@value #STRIDE}th sample is inspected and the level is a mean absolute value
+ *         (no multiplications), therefore the per-frame cost is negligible.</li>
+ *     <li>Not thread-safe. For audio data definition see {@link AudioRecordingConstants}.</li>
+ * </ul>
+ */
+public class EnergyTrigger {
+
+    private static final int STRIDE = 4;
+
+    private static final int BLOCK_MS = 50;
+
+    private static final int BLOCK_BYTES = AudioRecordingConstants.SAMPLE_RATE * 2 * BLOCK_MS / 1000;
+
+    /**
+     * Adaptation rate of the noise floor if the level rises.
+     * The floor follows falling levels immediately.
+     */
+    private static final double NOISE_FLOOR_RISE_RATE = 0.05;
+
+    private final double triggerToNoiseRatio;
+    private final int minLevel;
+
+    private double noiseFloor = -1;
+
+    public EnergyTrigger() {
+        this(3.0, 300);
+    }
+
+    /**
+     * @param triggerToNoiseRatio Ratio of the block level to the noise floor which fires the trigger.
+     * @param minLevel Minimal block level (mean absolute 16-bit sample value) which fires the trigger.
+     */
+    public EnergyTrigger(double triggerToNoiseRatio, int minLevel) {
+        this.triggerToNoiseRatio = triggerToNoiseRatio;
+        this.minLevel = minLevel;
+    }
+
+    /**
+     * @return <code>true</code> if the trigger has fired.
+     */
+    public boolean process(byte[] data, int length) {
+
+        int maxLevel = 0;
+        int minBlockLevel = Integer.MAX_VALUE;
+
+        for (int block = 0; block < length; block += BLOCK_BYTES) {
+            int level = PcmLevels.meanAbs(data, block, Math.min(block + BLOCK_BYTES, length), STRIDE);
+            if (level < 0) continue;
+            if (level > maxLevel) maxLevel = level;
+            if (level < minBlockLevel) minBlockLevel = level;
+        }
+
+        if (minBlockLevel == Integer.MAX_VALUE) {
+            return false;
+        }
+
+        boolean fired = noiseFloor >= 0 && maxLevel > minLevel && maxLevel > noiseFloor * triggerToNoiseRatio;
+
+        // The quietest block of the frame is the best estimate of the noise.
+        if (noiseFloor < 0 || minBlockLevel < noiseFloor) {
+            noiseFloor = minBlockLevel;
+        } else {
+            noiseFloor += (minBlockLevel - noiseFloor) * NOISE_FLOOR_RISE_RATE;
+        }
+
+        return fired;
+    }
+
+}
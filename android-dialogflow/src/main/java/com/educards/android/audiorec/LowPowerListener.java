@@ -0,0 +1,447 @@
+/*
+ * Copyright © 2026 Educards Learning, SL.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.educards.android.audiorec;
+
+import android.os.Process;
+import android.os.SystemClock;
+import android.util.Log;
+
+import com.educards.android.dialogflow.BuildConfig;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.annotation.Nullable;
+
+/**
+ * Low-power always-listening capture with a staged wake-up.
+ *
+ * <ul>
+ *     <li><b>Idle tier</b>: the mic is read in large frames (by default 0.5 s, see {@link #DEFAULT_IDLE_FRAME_BYTES})
+ *         on a background priority thread. Each frame is only checked by the cheap {@link EnergyTrigger},
+ *         no other processing is done and no network stream is open.</li>
+ *     <li><b>Active tier</b>: once the trigger fires, {@link Callback#onTriggered(LowPowerListener, AudioSource)}
+ *         receives an {@link AudioSource} which is meant to be set to a regular {@link AudioRecordingThread}
+ *         (full-rate capture in {@link AudioRecordingConstants#BUFFER_SIZE 100 ms} frames).
+ *         The source first replays the triggering frame together with the frame before it
+ *         and then continues reading from the very same mic recording, therefore no audio is lost on wake-up.</li>
+ *     <li>Once the active source is {@link AudioSource#release() released} the listener falls back to the idle tier.</li>
+ * </ul>
+ *
+ * <p>Each instance listens at most once. Its lifecycle is kept in a single atomic {@link State},
+ * the listener becomes {@link State#STOPPED} only once the mic has been released.</p>
+ *
+ * <p>CPU time and wakeups (blocking reads) are measured separately for each tier,
+ * see {@link #getIdleStats()} and {@link #getActiveStats()}. The tiers are compared by the CPU time
+ * of the whole process, since the active tier runs also on other threads (networking, deadlines, observer),
+ * the CPU time of the capture thread alone is available too. The active tier lasts from the trigger
+ * until the active source is released, so the start up and shut down of the intent detection are included.</p>
+ */
+public class LowPowerListener {
+
+    private static final String TAG = "LowPowerListener";
+
+    /**
+     * Idle tier frame: 0.5 second of audio.
+     */
+    public static final int DEFAULT_IDLE_FRAME_BYTES = AudioRecordingConstants.BUFFER_SIZE * 5;
+
+    /**
+     * Size of the mic buffer in idle frames. The buffer has to hold the audio recorded
+     * while the background priority thread is descheduled and while the active tier is starting.
+     */
+    private static final int SOURCE_BUFFER_FRAMES = 4;
+
+    /**
+     * Lifecycle of {@link LowPowerListener}:
+     * <code>NEW &rarr; LISTENING &rarr; STOP_REQUESTED &rarr; STOPPED</code>.
+     * A stop requested prior to {@link #start()} moves the listener directly from
+     * <code>NEW</code> to <code>STOPPED</code>.
+     */
+    public enum State {
+        NEW,
+        LISTENING,
+        STOP_REQUESTED,
+        STOPPED
+    }
+
+    public interface Callback {
+
+        /**
+         * Called from the listening thread when the trigger fires. The <code>activeSource</code>
+         * must be {@link AudioSource#release() released} in any case (even if it's not used at all),
+         * otherwise the listener won't return to the idle tier.
+         */
+        void onTriggered(LowPowerListener listener, AudioSource activeSource);
+
+    }
+
+    /**
+     * CPU time and wakeups accumulated in a single tier.
+     * Written by the listening thread only, may be read from any thread.
+     */
+    public static class TierStats {
+
+        private volatile long cpuMillis;
+        private volatile long captureCpuMillis;
+        private volatile long wallMillis;
+        private volatile long wakeups;
+
+        void add(long cpuMillis, long captureCpuMillis, long wallMillis, long wakeups) {
+            this.cpuMillis += cpuMillis;
+            this.captureCpuMillis += captureCpuMillis;
+            this.wallMillis += wallMillis;
+            this.wakeups += wakeups;
+        }
+
+        /**
+         * @return CPU time of the whole process spent in this tier
+         *         (includes any other work of the app running meanwhile).
+         */
+        public long getCpuMillis() {
+            return cpuMillis;
+        }
+
+        /**
+         * @return CPU time of the capture thread spent in this tier
+         *         (the listening thread in idle tier, the recording thread in active tier).
+         */
+        public long getCaptureCpuMillis() {
+            return captureCpuMillis;
+        }
+
+        /**
+         * @return Wall time spent in this tier.
+         */
+        public long getWallMillis() {
+            return wallMillis;
+        }
+
+        public long getWakeups() {
+            return wakeups;
+        }
+
+        public double getCpuMillisPerMinute() {
+            return perMinute(cpuMillis);
+        }
+
+        public double getWakeupsPerMinute() {
+            return perMinute(wakeups);
+        }
+
+        private double perMinute(long value) {
+            long wall = wallMillis;
+            return wall > 0 ? value * 60_000.0 / wall : 0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("[cpuMillis=%d, captureCpuMillis=%d, wallMillis=%d, wakeups=%d, cpuMillisPerMinute=%.1f, wakeupsPerMinute=%.1f]",
+                    cpuMillis, captureCpuMillis, wallMillis, wakeups, getCpuMillisPerMinute(), getWakeupsPerMinute());
+        }
+    }
+
+    private final int idleFrameBytes;
+    private final EnergyTrigger trigger;
+    private final Callback callback;
+
+    private final TierStats idleStats = new TierStats();
+    private final TierStats activeStats = new TierStats();
+
+    @Nullable
+    private volatile AudioSource audioSource;
+
+    private final AtomicReference<State> state = new AtomicReference<>(State.NEW);
+
+    /**
+     * Single purpose callback(s) invoked exactly once after the mic has been released.
+     */
+    private final AtomicReference<Runnable> stoppedCallback = new AtomicReference<>();
+
+    public LowPowerListener(EnergyTrigger trigger, Callback callback) {
+        this(DEFAULT_IDLE_FRAME_BYTES, trigger, callback);
+    }
+
+    /**
+     * @param idleFrameBytes Size of the idle tier frame in bytes.
+     *                       Should be a multiple of {@link AudioRecordingConstants#BUFFER_SIZE}.
+     */
+    public LowPowerListener(int idleFrameBytes, EnergyTrigger trigger, Callback callback) {
+        this.idleFrameBytes = idleFrameBytes;
+        this.trigger = trigger;
+        this.callback = callback;
+    }
+
+    /**
+     * Replaces the default mic {@link AudioRecordSource}. Has to be called before {@link #start()}.
+     */
+    public void setAudioSource(@Nullable AudioSource audioSource) {
+        this.audioSource = audioSource;
+    }
+
+    /**
+     * Starts the listening thread.
+     * @return <code>false</code> if the listener has already been started or stopped.
+     */
+    public boolean start() {
+        if (!state.compareAndSet(State.NEW, State.LISTENING)) {
+            Log.w(TAG, String.format("Redundant request to start low-power listening [state=%s]", state.get()));
+            return false;
+        }
+        new Thread(this::listen, TAG).start();
+        return true;
+    }
+
+    public void stop() {
+        stop(null);
+    }
+
+    /**
+     * Requests the listening to stop. If the active tier is running, the mic is released
+     * only after the active source has been released.
+     * <code>stoppedCallback</code> is invoked exactly once after the mic has been released
+     * (immediately if the listener is already stopped).
+     */
+    public void stop(@Nullable Runnable stoppedCallback) {
+        if (BuildConfig.DEBUG) Log.d(TAG, "Low-power listening stop requested");
+
+        addStoppedCallback(stoppedCallback);
+
+        if (!state.compareAndSet(State.LISTENING, State.STOP_REQUESTED)) {
+            state.compareAndSet(State.NEW, State.STOPPED);
+        }
+
+        // The listening thread might have stopped before it could see our callback.
+        if (state.get() == State.STOPPED) {
+            runStoppedCallback();
+        }
+    }
+
+    private void addStoppedCallback(@Nullable Runnable callback) {
+        if (callback == null)
+            return;
+
+        for (;;) {
+            Runnable prev = stoppedCallback.get();
+            Runnable next = prev == null ? callback : () -> {
+                prev.run();
+                callback.run();
+            };
+            if (stoppedCallback.compareAndSet(prev, next))
+                return;
+        }
+    }
+
+    private void runStoppedCallback() {
+        Runnable callback = stoppedCallback.getAndSet(null);
+        if (callback != null) {
+            callback.run();
+        }
+    }
+
+    public State getState() {
+        return state.get();
+    }
+
+    /**
+     * @return <code>true</code> if the stop hasn't been requested yet.
+     */
+    public boolean isRunning() {
+        return state.get() == State.LISTENING;
+    }
+
+    /**
+     * @return <code>true</code> once the mic has been released (or if the listening has never started).
+     */
+    public boolean isStopped() {
+        return state.get() == State.STOPPED;
+    }
+
+    public TierStats getIdleStats() {
+        return idleStats;
+    }
+
+    public TierStats getActiveStats() {
+        return activeStats;
+    }
+
+    private void listen() {
+
+        Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+
+        AudioSource source = null;
+        boolean recording = false;
+
+        try {
+
+            source = audioSource != null ? audioSource : new AudioRecordSource(idleFrameBytes * SOURCE_BUFFER_FRAMES);
+            source.startRecording();
+            recording = true;
+            Log.v(TAG, "Low-power listening started");
+
+            byte[] frame = new byte[idleFrameBytes];
+            byte[] previousFrame = new byte[idleFrameBytes];
+            int previousLength = 0;
+
+            long cpuStart = Process.getElapsedCpuTime();
+            long threadCpuStart = SystemClock.currentThreadTimeMillis();
+            long wallStart = SystemClock.elapsedRealtime();
+            long wakeups = 0;
+
+            while (state.get() == State.LISTENING) {
+
+                int length = source.read(frame, 0, frame.length);
+                wakeups++;
+
+                if (length < 0) {
+                    Log.e(TAG, String.format("Low-power listening failed [error=%d]", length));
+                    break;
+                }
+
+                if (length > 0 && trigger.process(frame, length)) {
+
+                    long triggerCpu = Process.getElapsedCpuTime();
+                    long triggerWall = SystemClock.elapsedRealtime();
+                    idleStats.add(triggerCpu - cpuStart, SystemClock.currentThreadTimeMillis() - threadCpuStart,
+                            triggerWall - wallStart, wakeups);
+
+                    byte[] preRoll = new byte[previousLength + length];
+                    System.arraycopy(previousFrame, 0, preRoll, 0, previousLength);
+                    System.arraycopy(frame, 0, preRoll, previousLength, length);
+
+                    if (BuildConfig.DEBUG) Log.d(TAG, String.format("Triggered [preRollBytes=%d]", preRoll.length));
+
+                    ActiveSource activeSource = new ActiveSource(source, preRoll);
+                    callback.onTriggered(this, activeSource);
+                    activeSource.awaitReleased();
+
+                    // Fields of the active source are visible once released.
+                    cpuStart = Process.getElapsedCpuTime();
+                    wallStart = SystemClock.elapsedRealtime();
+                    activeStats.add(cpuStart - triggerCpu, activeSource.captureCpuMillis,
+                            wallStart - triggerWall, activeSource.wakeups);
+
+                    if (BuildConfig.DEBUG) Log.d(TAG, "Back in idle tier");
+
+                    previousLength = 0;
+                    threadCpuStart = SystemClock.currentThreadTimeMillis();
+                    wakeups = 0;
+                    continue;
+                }
+
+                byte[] swap = previousFrame;
+                previousFrame = frame;
+                frame = swap;
+                previousLength = length;
+            }
+
+            idleStats.add(Process.getElapsedCpuTime() - cpuStart, SystemClock.currentThreadTimeMillis() - threadCpuStart,
+                    SystemClock.elapsedRealtime() - wallStart, wakeups);
+
+        } catch (RuntimeException e) {
+            // e.g. the mic is held by another AudioRecord
+            Log.e(TAG, "Low-power listening failed", e);
+
+        } finally {
+
+            Log.v(TAG, String.format("Low-power listening stopped [idle=%s, active=%s]", idleStats, activeStats));
+
+            try {
+                if (source != null) {
+                    if (recording) source.stop();
+                    source.release();
+                }
+            } catch (RuntimeException e) {
+                Log.e(TAG, "Failed to release the audio source", e);
+            }
+
+            // Restart is allowed only once the mic has been released.
+            state.set(State.STOPPED);
+            runStoppedCallback();
+        }
+    }
+
+    /**
+     * Active tier view of the mic recording. Replays the pre-roll and then reads the shared source.
+     * The shared source is neither stopped nor released, it is returned to the idle tier instead.
+     */
+    private class ActiveSource implements AudioSource {
+
+        private final AudioSource source;
+        private final byte[] preRoll;
+        private final CountDownLatch released = new CountDownLatch(1);
+
+        private int preRollPosition;
+
+        // Capture thread only, read by the listening thread once released
+        private boolean started;
+        private long threadCpuStart;
+        private long captureCpuMillis;
+        private long wakeups;
+
+        ActiveSource(AudioSource source, byte[] preRoll) {
+            this.source = source;
+            this.preRoll = preRoll;
+        }
+
+        @Override
+        public void startRecording() {
+            // The shared source is already recording.
+            started = true;
+            threadCpuStart = SystemClock.currentThreadTimeMillis();
+        }
+
+        @Override
+        public int read(byte[] audioData, int offset, int size) {
+            if (preRollPosition < preRoll.length) {
+                int length = Math.min(size, preRoll.length - preRollPosition);
+                System.arraycopy(preRoll, preRollPosition, audioData, offset, length);
+                preRollPosition += length;
+                return length;
+            }
+            wakeups++;
+            return source.read(audioData, offset, size);
+        }
+
+        @Override
+        public void stop() {
+            if (started) {
+                started = false;
+                captureCpuMillis += SystemClock.currentThreadTimeMillis() - threadCpuStart;
+            }
+        }
+
+        @Override
+        public void release() {
+            stop();
+            released.countDown();
+        }
+
+        void awaitReleased() {
+            boolean interrupted = false;
+            while (true) {
+                try {
+                    released.await();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright © 2026 Educards Learning, SL.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.educards.android.audiorec;
+
+/**
+ * Level measures of 16-bit little endian mono PCM (see {@link AudioRecordingConstants})
+ * shared by {@link AudioHealthMonitor}, {@link SpeechEndpointer} and {@link EnergyTrigger}.
+ */
+final class PcmLevels {
+
+    static final int BYTES_PER_SAMPLE = 2;
+
+    private PcmLevels() {
+    }
+
+    /**
+     * @return Sample starting at the given byte offset.
+     */
+    static int sample(byte[] data, int offset) {
+        return (short) ((data[offset] & 0xff) | (data[offset + 1] << 8));
+    }
+
+    /**
+     * @return RMS of the samples in the first <code>length</code> bytes of <code>data</code>
+     *         or <code>0</code> if there is no sample.
+     */
+    static double rms(byte[] data, int length) {
+        int samples = length / BYTES_PER_SAMPLE;
+        if (samples == 0) return 0;
+
+        long sumSquares = 0;
+        for (int i = 0; i < samples * BYTES_PER_SAMPLE; i += BYTES_PER_SAMPLE) {
+            int sample = sample(data, i);
+            sumSquares += sample * sample;
+        }
+        return Math.sqrt((double) sumSquares / samples);
+    }
+
+    /**
+     * @return Maximal absolute sample value in the first <code>length</code> bytes of <code>data</code>.
+     */
+    static int peak(byte[] data, int length) {
+        int peak = 0;
+        for (int i = 0; i + 1 < length; i += BYTES_PER_SAMPLE) {
+            int abs = Math.abs(sample(data, i));
+            if (abs > peak) peak = abs;
+        }
+        return peak;
+    }
+
+    /**
+     * Cheap level estimate: mean absolute value of every <code>stride</code>-th sample
+     * in bytes <code>[from, to)</code> of <code>data</code>.
+     * @return The level or <code>-1</code> if there is no sample.
+     */
+    static int meanAbs(byte[] data, int from, int to, int stride) {
+        long sum = 0;
+        int count = 0;
+        for (int i = from; i + 1 < to; i += BYTES_PER_SAMPLE * stride) {
+            int sample = sample(data, i);
+            sum += sample < 0 ? -sample : sample;
+            count++;
+        }
+        return count == 0 ? -1 : (int) (sum / count);
+    }
+
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright © 2026 Educards Learning, SL.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.educards.android.audiorec;
+
+/**
+ * Lightweight energy based endpointer which detects the end of speech in the recorded audio.
+ *
+ * <ul>
+ *     <li>Tracks the noise floor of the input and classifies each frame as speech or silence.</li>
+ *     <li>The end of speech is reported once a speech has been detected and it has been
+ *         followed by the configured amount of trailing silence.</li>
+ *     <li>Not thread-safe. Frames are expected to be {@link #process(byte[], int) processed}
+ *         from {@link AudioRecordingThread}. For audio data definition see {@link AudioRecordingConstants}.</li>
+ *     <li>Single use, a new instance is expected to be created for each utterance.</li>
+ * </ul>
+ */
+public class SpeechEndpointer {
+
+    /**
+     * Predefined endpointer settings. The more aggressive the endpointer is
+     * the sooner it closes the utterance, at the cost of cutting off slow or quiet speakers.
+     */
+    public enum Aggressiveness {
+
+        LOW(2.0, 1200),
+        MEDIUM(3.0, 800),
+        HIGH(4.0, 500);
+
+        final double speechToNoiseRatio;
+        final int trailingSilenceMs;
+
+        Aggressiveness(double speechToNoiseRatio, int trailingSilenceMs) {
+            this.speechToNoiseRatio = speechToNoiseRatio;
+            this.trailingSilenceMs = trailingSilenceMs;
+        }
+    }
+
+    /**
+     * Minimal RMS (in 16-bit sample units) of a speech frame regardless of the noise floor.
+     */
+    private static final double MIN_SPEECH_RMS = 300;
+
+    /**
+     * Minimal duration of continuous speech to consider the speech started.
+     */
+    private static final int SPEECH_ONSET_MS = 150;
+
+    /**
+     * Adaptation rate of the noise floor if the level rises.
+     * The floor follows falling levels immediately.
+     */
+    private static final double NOISE_FLOOR_RISE_RATE = 0.02;
+
+    private final double speechToNoiseRatio;
+    private final int trailingSilenceMs;
+
+    private double noiseFloor = -1;
+    private int speechMs;
+    private int silenceMs;
+    private int audioMs;
+    private boolean speechStarted;
+    private boolean endOfSpeech;
+    private int endOfSpeechAudioMs = -1;
+
+    public SpeechEndpointer(Aggressiveness aggressiveness) {
+        this(aggressiveness.speechToNoiseRatio, aggressiveness.trailingSilenceMs);
+    }
+
+    /**
+     * @param speechToNoiseRatio Ratio of the frame RMS to the noise floor to classify the frame as speech.
+     * @param trailingSilenceMs  Silence which needs to follow the speech to report the end of speech.
+     */
+    public SpeechEndpointer(double speechToNoiseRatio, int trailingSilenceMs) {
+        this.speechToNoiseRatio = speechToNoiseRatio;
+        this.trailingSilenceMs = trailingSilenceMs;
+    }
+
+    /**
+     * Processes a chunk of recorded audio.
+     * @return <code>true</code> if the end of speech has been detected (by this or any previous chunk).
+     */
+    public boolean process(byte[] data, int length) {
+        return endOfSpeech || processLevel(PcmLevels.rms(data, length), length);
+    }
+
+    /**
+     * Same as {@link #process(byte[], int)} for a chunk whose RMS is already known,
+     * e.g. from {@link AudioHealthMonitor#getLastRms()} of the same frame.
+     *
+     * @param length Length of the chunk in bytes.
+     */
+    public boolean processLevel(double rms, int length) {
+
+        if (endOfSpeech) {
+            return true;
+        }
+
+        int samples = length / PcmLevels.BYTES_PER_SAMPLE;
+        if (samples == 0) {
+            return false;
+        }
+
+        int frameMs = samples * 1000 / AudioRecordingConstants.SAMPLE_RATE;
+        audioMs += frameMs;
+
+        boolean speech = rms > MIN_SPEECH_RMS && noiseFloor >= 0 && rms > noiseFloor * speechToNoiseRatio;
+
+        if (!speech) {
+            if (noiseFloor < 0 || rms < noiseFloor) {
+                noiseFloor = rms;
+            } else {
+                noiseFloor += (rms - noiseFloor) * NOISE_FLOOR_RISE_RATE;
+            }
+        }
+
+        if (speech) {
+            speechMs += frameMs;
+            silenceMs = 0;
+            if (speechMs >= SPEECH_ONSET_MS) {
+                speechStarted = true;
+            }
+        } else {
+            silenceMs += frameMs;
+            if (!speechStarted) {
+                speechMs = 0;
+            } else if (silenceMs >= trailingSilenceMs) {
+                endOfSpeech = true;
+                endOfSpeechAudioMs = audioMs - silenceMs;
+            }
+        }
+
+        return endOfSpeech;
+    }
+
+    public boolean isSpeechStarted() {
+        return speechStarted;
+    }
+
+    public boolean isEndOfSpeech() {
+        return endOfSpeech;
+    }
+
+    /**
+     * @return Position (in ms of processed audio) where the speech ended or <code>-1</code> if not yet detected.
+     */
+    public int getEndOfSpeechAudioMs() {
+        return endOfSpeechAudioMs;
+    }
+
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright © 2026 Educards Learning, SL.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.educards.android.dialogflow;
+
+/**
+ * Deadlines of the individual phases of a single intent detection (utterance).
+ * Once any of the deadlines expires the stream is cancelled, audio recording is stopped
+ * and {@link DialogflowTimeoutException} is delivered to {@link DialogflowIntentObserver#onError}.
+ *
+ * <p>All the deadlines are in milliseconds, <code>0</code> disables the deadline.</p>
+ *
+ * @see DialogflowIntentDetector#setTimeouts(DetectionTimeouts)
+ * @see #newBuilder()
+ */
+public class DetectionTimeouts {
+
+    /**
+     * No deadlines at all.
+     */
+    public static final DetectionTimeouts NONE = newBuilder().build();
+
+    private final long streamReadyMillis;
+    private final long noSpeechMillis;
+    private final long maxUtteranceMillis;
+    private final long finalResultMillis;
+
+    private DetectionTimeouts(Builder builder) {
+        this.streamReadyMillis = builder.streamReadyMillis;
+        this.noSpeechMillis = builder.noSpeechMillis;
+        this.maxUtteranceMillis = builder.maxUtteranceMillis;
+        this.finalResultMillis = builder.finalResultMillis;
+    }
+
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    /**
+     * @return Deadline (since recording has started) for the gRPC stream to become ready.
+     */
+    public long getStreamReadyMillis() {
+        return streamReadyMillis;
+    }
+
+    /**
+     * @return Deadline (since recording has started) for any speech to be recognized.
+     */
+    public long getNoSpeechMillis() {
+        return noSpeechMillis;
+    }
+
+    /**
+     * @return Maximal length of the utterance (since recording has started until the upstream is closed).
+     */
+    public long getMaxUtteranceMillis() {
+        return maxUtteranceMillis;
+    }
+
+    /**
+     * @return Deadline (since the upstream has been closed) for the server to finish the response.
+     */
+    public long getFinalResultMillis() {
+        return finalResultMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "DetectionTimeouts{" +
+                "streamReadyMillis=" + streamReadyMillis +
+                ", noSpeechMillis=" + noSpeechMillis +
+                ", maxUtteranceMillis=" + maxUtteranceMillis +
+                ", finalResultMillis=" + finalResultMillis +
+                '}';
+    }
+
+    public static class Builder {
+
+        private long streamReadyMillis;
+        private long noSpeechMillis;
+        private long maxUtteranceMillis;
+        private long finalResultMillis;
+
+        private Builder() {
+        }
+
+        public Builder setStreamReadyMillis(long streamReadyMillis) {
+            this.streamReadyMillis = streamReadyMillis;
+            return this;
+        }
+
+        public Builder setNoSpeechMillis(long noSpeechMillis) {
+            this.noSpeechMillis = noSpeechMillis;
+            return this;
+        }
+
+        public Builder setMaxUtteranceMillis(long maxUtteranceMillis) {
+            this.maxUtteranceMillis = maxUtteranceMillis;
+            return this;
+        }
+
+        public Builder setFinalResultMillis(long finalResultMillis) {
+            this.finalResultMillis = finalResultMillis;
+            return this;
+        }
+
+        public DetectionTimeouts build() {
+            return new DetectionTimeouts(this);
+        }
+    }
+
+}
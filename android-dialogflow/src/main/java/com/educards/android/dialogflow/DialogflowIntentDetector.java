@@ -20,15 +20,26 @@ import android.content.Context;
 import android.util.Log;
 
 import com.educards.android.audiorec.AudioDataReceiver;
+import com.educards.android.audiorec.AudioHealthMonitor;
 import com.educards.android.audiorec.AudioRecordingConstants;
 import com.educards.android.audiorec.AudioRecordingThread;
+import com.educards.android.audiorec.AudioSource;
+import com.educards.android.audiorec.EnergyTrigger;
+import com.educards.android.audiorec.LowPowerListener;
+import com.educards.android.audiorec.SpeechEndpointer;
+import com.google.api.core.ApiFutureCallback;
+import com.google.api.core.ApiFutures;
 import com.google.api.gax.core.FixedCredentialsProvider;
+import com.google.api.gax.rpc.ApiException;
 import com.google.api.gax.rpc.BidiStreamObserver;
 import com.google.api.gax.rpc.ClientStream;
+import com.google.api.gax.rpc.StatusCode;
 import com.google.api.gax.rpc.StreamController;
 import com.google.auth.oauth2.GoogleCredentials;
 import com.google.auth.oauth2.ServiceAccountCredentials;
 import com.google.cloud.dialogflow.v2.AudioEncoding;
+import com.google.cloud.dialogflow.v2.DetectIntentRequest;
+import com.google.cloud.dialogflow.v2.DetectIntentResponse;
 import com.google.cloud.dialogflow.v2.InputAudioConfig;
 import com.google.cloud.dialogflow.v2.QueryInput;
 import com.google.cloud.dialogflow.v2.SessionName;
@@ -37,9 +48,25 @@ import com.google.cloud.dialogflow.v2.SessionsSettings;
 import com.google.cloud.dialogflow.v2.StreamingDetectIntentRequest;
 import com.google.cloud.dialogflow.v2.StreamingDetectIntentResponse;
 import com.google.cloud.dialogflow.v2.StreamingRecognitionResult;
+import com.google.cloud.dialogflow.v2.TextInput;
+import com.google.common.util.concurrent.MoreExecutors;
 import com.google.protobuf.ByteString;
 
+import java.io.IOException;
 import java.io.InputStream;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import javax.annotation.Nullable;
 
@@ -50,9 +77,12 @@ import javax.annotation.Nullable;
  *      audio input from mic and passes the recorded audio data down to gRPC API of Dialogflow to detect
  *      the intent online.
  *  </li>
- *  <li>Audio data are streamed at every point of the procedure. No audio data are saved to filesystem during intent detection.</li>
+ *  <li>Audio data are streamed at every point of the procedure. No audio data are saved to filesystem during intent detection
+ *      (unless the device is offline and {@link #setOfflineQueue(OfflineUtteranceQueue) store-and-forward} is enabled).</li>
  *  <li>It's valid to call the {@link #startIntentDetection(AudioRecordingThreadInitializer)} multiple times.</li>
  *  <li>{@link #close()} needs to be called to clean up resources such as threads.</li>
+ *  <li>Lifecycle of the detector is kept in a single atomic {@link State} changed by CAS transitions only,
+ *      therefore all the queries ({@link #isRunning()}, {@link #isActive()}, {@link #getState()}) are lock-free.</li>
  * </ul>
  *
  * @see #startIntentDetection(AudioRecordingThreadInitializer)
@@ -61,6 +91,64 @@ public class DialogflowIntentDetector implements AutoCloseable {
 
     private static final String TAG = "DialogflowIntentDetect";
 
+    /**
+     * Number of queued utterances sent in a single batch.
+     */
+    private static final int OFFLINE_BATCH_SIZE = 8;
+
+    /**
+     * Maximal number of queued utterances sent concurrently.
+     */
+    private static final int OFFLINE_MAX_CONCURRENCY = 2;
+
+    /**
+     * Initial delay before the queued utterances are resent after a network failure
+     * while the device still appears to be connected. Doubled on each failure up to {@link #OFFLINE_RETRY_MAX_MS}.
+     */
+    private static final long OFFLINE_RETRY_INITIAL_MS = 1000;
+    private static final long OFFLINE_RETRY_MAX_MS = 60_000;
+
+    /**
+     * Lifecycle of {@link DialogflowIntentDetector}:
+     * <code>IDLE &rarr; STARTING &rarr; STREAMING &rarr; DRAINING &rarr; STOPPED</code>.
+     * <ul>
+     *     <li><code>IDLE</code>: no intent detection has been started yet.</li>
+     *     <li><code>STARTING</code>: audio recording has been started, the gRPC stream is not yet ready.</li>
+     *     <li><code>STREAMING</code>: recorded audio is being streamed to Dialogflow.</li>
+     *     <li><code>DRAINING</code>: stop has been requested (explicitly or by the server), audio recording is being stopped.</li>
+     *     <li><code>STOPPED</code>: audio recording has stopped, the mic has been released and the stream has terminated.</li>
+     *     <li><code>CLOSED</code>: the detector has been {@link #close() closed} and can't be started again.</li>
+     * </ul>
+     * New intent detection may only be started from <code>IDLE</code> or <code>STOPPED</code>,
+     * therefore two recordings can never overlap.
+     */
+    public enum State {
+        IDLE,
+        STARTING,
+        STREAMING,
+        DRAINING,
+        STOPPED,
+        CLOSED
+    }
+
+    /**
+     * Immutable snapshot of the lifecycle. The {@link State} is kept together with
+     * the {@link DetectionReceiver detection} it belongs to, so that a single CAS
+     * changes both of them atomically.
+     */
+    private static final class Lifecycle {
+
+        final State state;
+
+        @Nullable
+        final DetectionReceiver detection;
+
+        Lifecycle(State state, @Nullable DetectionReceiver detection) {
+            this.state = state;
+            this.detection = detection;
+        }
+    }
+
     private final Context context;
 
     /**
@@ -70,16 +158,71 @@ public class DialogflowIntentDetector implements AutoCloseable {
 
     private final DialogflowIntentObserver observer;
 
+    private final AtomicReference<Lifecycle> lifecycle = new AtomicReference<>(new Lifecycle(State.IDLE, null));
+
     /**
-     * Monitor used to synchronize access to {@link #audioRecordingThread}
-     * and {@link #dialogflowClientStream} since these fields are accessed and modified
-     * from worker threads.
+     * Held while the detection becomes {@link State#STOPPED} and its terminal callback is delivered
+     * and while {@link DialogflowIntentObserver#onStart} is delivered, so that the next detection
+     * (possibly started concurrently) can't overtake the terminal callback of the previous one.
+     */
+    private final Object observerLock = new Object();
+
+    /**
+     * Whether the current (or the last) intent detection has been stopped by {@link #requestStop()}.
+     * This is not a lifecycle state, just the reason of the stop.
      */
-    private final Object monitor = new Object();
     private volatile boolean stopRequested;
 
-    private volatile AudioRecordingThread audioRecordingThread;
-    private volatile ClientStream<StreamingDetectIntentRequest> dialogflowClientStream;
+    /**
+     * If not <code>null</code> the end of speech is also detected locally.
+     * @see #setLocalEndpointing(SpeechEndpointer.Aggressiveness)
+     */
+    @Nullable
+    private volatile SpeechEndpointer.Aggressiveness localEndpointing;
+
+    private final EndpointingStats endpointingStats = new EndpointingStats();
+
+    @Nullable
+    private volatile OutputAudioPlayback outputAudioPlayback;
+
+    private volatile DetectionTimeouts timeouts = DetectionTimeouts.NONE;
+
+    /**
+     * Scheduler of {@link DetectionTimeouts deadlines}. Its thread is started
+     * only once the first deadline is scheduled.
+     */
+    private final ScheduledThreadPoolExecutor deadlineScheduler = createDeadlineScheduler();
+
+    @Nullable
+    private volatile OfflineUtteranceQueue offlineQueue;
+
+    /**
+     * Single worker which sends the {@link #offlineQueue} (created lazily).
+     */
+    @Nullable
+    private ExecutorService offlineExecutor;
+    private final AtomicBoolean offlineFlushing = new AtomicBoolean();
+
+    /**
+     * Running low-power listener (guarded by <code>this</code>).
+     * @see #startListening(EnergyTrigger)
+     */
+    @Nullable
+    private LowPowerListener lowPowerListener;
+
+    @Nullable
+    private volatile LocalIntentClassifier localClassifier;
+    private volatile float localMinConfidence;
+
+    /**
+     * Recordings started and not yet stopped.
+     */
+    private final AtomicInteger liveRecordings = new AtomicInteger();
+
+    /**
+     * gRPC streams opened and not yet completed (or failed).
+     */
+    private final AtomicInteger openStreams = new AtomicInteger();
 
     private SessionsClient dialogflowSessionsClient;
     private SessionName dialogflowSessionName;
@@ -101,6 +244,23 @@ public class DialogflowIntentDetector implements AutoCloseable {
         initDialogflowV2(perAgentCredentialsRawRes, sessionUuid);
     }
 
+    /**
+     * Creates the detector with custom client settings, e.g. to connect to a proxy
+     * which holds the credentials on the server side, or to a local stand-in server for testing.
+     */
+    public DialogflowIntentDetector(Context context, SessionsSettings sessionsSettings, SessionName sessionName, String lngCode, DialogflowIntentObserver observer) {
+        this.context = context;
+        this.lngCode = lngCode;
+        this.observer = observer;
+
+        try {
+            dialogflowSessionsClient = SessionsClient.create(sessionsSettings);
+            dialogflowSessionName = sessionName;
+        } catch (Throwable t) {
+            throw new RuntimeException("Failed to initialize Dialogflow client.", t);
+        }
+    }
+
     /**
      * Initializes Dialogflow V2 client.
      */
@@ -125,6 +285,393 @@ public class DialogflowIntentDetector implements AutoCloseable {
         }
     }
 
+    private static ScheduledThreadPoolExecutor createDeadlineScheduler() {
+        ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread thread = new Thread(r, "DialogflowDeadlines");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.setRemoveOnCancelPolicy(true);
+        return scheduler;
+    }
+
+    /**
+     * Sets the deadlines of the individual phases of intent detection.
+     * Applies to intent detections started afterwards.
+     *
+     * @see DialogflowTimeoutException
+     */
+    public void setTimeouts(DetectionTimeouts timeouts) {
+        this.timeouts = timeouts;
+    }
+
+    @Nullable
+    private ScheduledFuture<?> scheduleDeadline(long millis, Runnable task) {
+        if (millis <= 0) {
+            return null;
+        }
+        try {
+            return deadlineScheduler.schedule(task, millis, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // detector has been closed
+            return null;
+        }
+    }
+
+    private static void cancelDeadline(@Nullable ScheduledFuture<?> deadline) {
+        if (deadline != null) {
+            deadline.cancel(false);
+        }
+    }
+
+    /**
+     * Enables on-device classification of text queries (see {@link #detectTextIntent(String)}).
+     *
+     * @param localClassifier Classifier or <code>null</code> to always query the server.
+     * @param minConfidence Local results with lower confidence fall back to the server.
+     */
+    public void setLocalClassifier(@Nullable LocalIntentClassifier localClassifier, float minConfidence) {
+        this.localClassifier = localClassifier;
+        this.localMinConfidence = minConfidence;
+    }
+
+    /**
+     * Detects the intent of a text query.
+     * <ul>
+     *     <li>If the {@link #setLocalClassifier(LocalIntentClassifier, float) local classifier} is confident enough
+     *         the result is returned immediately without any network round trip.</li>
+     *     <li>Otherwise the query is sent to the server. This is a blocking call, therefore it shouldn't
+     *         be called from the main thread.</li>
+     * </ul>
+     */
+    public DialogflowIntentResponse detectTextIntent(String text) {
+
+        LocalIntentClassifier classifier = localClassifier;
+        if (classifier != null) {
+            DialogflowIntentResponse local = classifier.classify(text);
+            if (local.getIntentDetectionConfidence() >= localMinConfidence) {
+                if (BuildConfig.DEBUG) Log.d(TAG, String.format("Intent detected locally [response=%s]", local));
+                return local;
+            }
+        }
+
+        DetectIntentResponse response = dialogflowSessionsClient.detectIntent(
+                DetectIntentRequest.newBuilder()
+                        .setSession(dialogflowSessionName.toString())
+                        .setQueryInput(QueryInput.newBuilder()
+                                .setText(TextInput.newBuilder().setText(text).setLanguageCode(lngCode)))
+                        .build());
+
+        return DialogflowIntentResponse.wrap(toStreamingResponse(response));
+    }
+
+    /**
+     * Enables store-and-forward of utterances recorded while offline.
+     * <ul>
+     *     <li>If the network is unavailable at {@link #startIntentDetection()} the utterance is recorded
+     *         to the <code>offlineQueue</code> instead of being streamed. The utterance ends once the local
+     *         {@link SpeechEndpointer} detects the end of speech (or the stop is requested).</li>
+     *     <li>Once the network is available again the queued utterances are sent in batches
+     *         over the (single) connection of this detector with limited concurrency.</li>
+     *     <li>The recording itself is reported as any other intent detection ({@link DialogflowIntentObserver#onStart},
+     *         then {@link DialogflowIntentObserver#onComplete} once the utterance has been queued or discarded,
+     *         or {@link DialogflowIntentObserver#onError} if it couldn't be stored or a deadline has expired).</li>
+     *     <li>If sending fails with a network error although the device is still connected, the queue
+     *         is resent with exponential backoff.</li>
+     *     <li>Results are delivered to the observer if it implements {@link OfflineUtteranceObserver}.</li>
+     * </ul>
+     *
+     * @param offlineQueue Queue or <code>null</code> to disable store-and-forward.
+     */
+    public synchronized void setOfflineQueue(@Nullable OfflineUtteranceQueue offlineQueue) {
+
+        OfflineUtteranceQueue previous = this.offlineQueue;
+        if (previous != null) {
+            previous.stopMonitoring();
+        }
+
+        this.offlineQueue = offlineQueue;
+
+        if (offlineQueue != null) {
+            if (offlineExecutor == null) {
+                offlineExecutor = Executors.newSingleThreadExecutor(r -> new Thread(r, "DialogflowOfflineQueue"));
+            }
+            offlineQueue.startMonitoring(this::flushOfflineQueue);
+            if (offlineQueue.isNetworkAvailable()) {
+                flushOfflineQueue();
+            }
+        }
+    }
+
+    /**
+     * Sends the utterances of {@link #offlineQueue} unless they are already being sent.
+     */
+    private void flushOfflineQueue() {
+
+        OfflineUtteranceQueue queue = offlineQueue;
+        ExecutorService executor = offlineExecutor;
+        if (queue == null || executor == null || getState() == State.CLOSED) {
+            return;
+        }
+
+        if (!offlineFlushing.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            executor.execute(() -> {
+                try {
+                    long retryDelayMs = OFFLINE_RETRY_INITIAL_MS;
+                    while (queue.isNetworkAvailable() && getState() != State.CLOSED) {
+                        List<OfflineUtteranceQueue.Utterance> batch = queue.peek(OFFLINE_BATCH_SIZE);
+                        if (batch.isEmpty()) {
+                            break;
+                        }
+                        if (sendOfflineBatch(queue, batch)) {
+                            retryDelayMs = OFFLINE_RETRY_INITIAL_MS;
+                        } else {
+                            // The device still reports connectivity (e.g. a captive portal or the server
+                            // being UNAVAILABLE), no network callback would wake the queue up again.
+                            Log.w(TAG, String.format("Sending offline utterances failed, retrying [delayMs=%d]", retryDelayMs));
+                            Thread.sleep(retryDelayMs);
+                            retryDelayMs = Math.min(retryDelayMs * 2, OFFLINE_RETRY_MAX_MS);
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    offlineFlushing.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // detector has been closed
+            offlineFlushing.set(false);
+        }
+    }
+
+    /**
+     * Sends the batch and waits for all the responses.
+     * @return <code>false</code> if the network has failed meanwhile and the rest of the queue should be retried later.
+     */
+    private boolean sendOfflineBatch(OfflineUtteranceQueue queue, List<OfflineUtteranceQueue.Utterance> batch) throws InterruptedException {
+
+        if (BuildConfig.DEBUG) Log.d(TAG, String.format("Sending offline utterances [count=%d]", batch.size()));
+
+        Semaphore permits = new Semaphore(OFFLINE_MAX_CONCURRENCY);
+        CountDownLatch done = new CountDownLatch(batch.size());
+        AtomicBoolean networkFailed = new AtomicBoolean();
+
+        for (OfflineUtteranceQueue.Utterance utterance : batch) {
+
+            permits.acquire();
+
+            DetectIntentRequest request;
+            try {
+                request = buildOfflineRequest(utterance);
+            } catch (IOException e) {
+                Log.e(TAG, "Failed to read offline utterance", e);
+                queue.remove(utterance);
+                permits.release();
+                done.countDown();
+                continue;
+            }
+
+            ApiFutures.addCallback(
+                    dialogflowSessionsClient.detectIntentCallable().futureCall(request),
+                    new ApiFutureCallback<DetectIntentResponse>() {
+
+                        @Override
+                        public void onSuccess(DetectIntentResponse response) {
+                            queue.remove(utterance);
+                            if (observer instanceof OfflineUtteranceObserver) {
+                                ((OfflineUtteranceObserver) observer).onOfflineUtteranceResponse(
+                                        DialogflowIntentDetector.this, utterance.getCaptureTimeMillis(), toStreamingResponse(response));
+                            }
+                            permits.release();
+                            done.countDown();
+                        }
+
+                        @Override
+                        public void onFailure(Throwable t) {
+                            if (isNetworkFailure(t)) {
+                                // keep the utterance queued until the network is back
+                                networkFailed.set(true);
+                            } else {
+                                Log.e(TAG, "Offline utterance failed", t);
+                                queue.remove(utterance);
+                                if (observer instanceof OfflineUtteranceObserver) {
+                                    ((OfflineUtteranceObserver) observer).onOfflineUtteranceError(
+                                            DialogflowIntentDetector.this, utterance.getCaptureTimeMillis(), t);
+                                }
+                            }
+                            permits.release();
+                            done.countDown();
+                        }
+                    },
+                    MoreExecutors.directExecutor());
+        }
+
+        done.await();
+        return !networkFailed.get();
+    }
+
+    private DetectIntentRequest buildOfflineRequest(OfflineUtteranceQueue.Utterance utterance) throws IOException {
+
+        InputAudioConfig inputAudioConfig = InputAudioConfig.newBuilder()
+                .setAudioEncoding(AudioEncoding.AUDIO_ENCODING_LINEAR_16)
+                .setSampleRateHertz(AudioRecordingConstants.SAMPLE_RATE)
+                .setLanguageCode(lngCode)
+                .build();
+
+        return DetectIntentRequest.newBuilder()
+                .setSession(dialogflowSessionName.toString())
+                .setQueryInput(QueryInput.newBuilder().setAudioConfig(inputAudioConfig))
+                .setInputAudio(ByteString.copyFrom(utterance.read()))
+                .build();
+    }
+
+    private static boolean isNetworkFailure(Throwable t) {
+        if (!(t instanceof ApiException)) {
+            return false;
+        }
+        StatusCode.Code code = ((ApiException) t).getStatusCode().getCode();
+        return code == StatusCode.Code.UNAVAILABLE || code == StatusCode.Code.DEADLINE_EXCEEDED;
+    }
+
+    /**
+     * Converts the unary response to the streaming one, so that the observer
+     * (and {@link DialogflowIntentResponse}) can process both of them the same way.
+     */
+    private static StreamingDetectIntentResponse toStreamingResponse(DetectIntentResponse response) {
+        return StreamingDetectIntentResponse.newBuilder()
+                .setResponseId(response.getResponseId())
+                .setQueryResult(response.getQueryResult())
+                .setWebhookStatus(response.getWebhookStatus())
+                .setOutputAudio(response.getOutputAudio())
+                .setOutputAudioConfig(response.getOutputAudioConfig())
+                .build();
+    }
+
+    /**
+     * Enables local endpointing by {@link SpeechEndpointer}. Once the endpointer detects the end of speech
+     * the upstream is closed and audio recording is stopped right away, without waiting for
+     * the server's <code>END_OF_SINGLE_UTTERANCE</code>. Responses of the server (including the detected intent)
+     * are still delivered to the observer.
+     *
+     * @param aggressiveness Aggressiveness of the endpointer or <code>null</code> to disable local endpointing.
+     *                       Applies to intent detections started afterwards.
+     * @see #getEndpointingStats()
+     */
+    public void setLocalEndpointing(@Nullable SpeechEndpointer.Aggressiveness aggressiveness) {
+        this.localEndpointing = aggressiveness;
+    }
+
+    /**
+     * @return Comparison of local and server end of speech detection.
+     */
+    public EndpointingStats getEndpointingStats() {
+        return endpointingStats;
+    }
+
+    /**
+     * Enables playback of the audio synthesized by Dialogflow for the <code>fulfillmentText</code>.
+     * The output audio is requested on the streaming call and played as soon as it arrives
+     * (or right away if the same text has already been synthesized before).
+     *
+     * @param outputAudioPlayback Playback or <code>null</code> to stop requesting the output audio.
+     *                            Applies to intent detections started afterwards.
+     */
+    public void setOutputAudioPlayback(@Nullable OutputAudioPlayback outputAudioPlayback) {
+        this.outputAudioPlayback = outputAudioPlayback;
+    }
+
+    /**
+     * Keeps the detector armed in a low-power tier (see {@link LowPowerListener}).
+     * <ul>
+     *     <li>While idle the mic is read in large frames checked by the <code>trigger</code> only
+     *         and no stream to Dialogflow is open.</li>
+     *     <li>Once the trigger fires the intent detection is started with full-rate capture
+     *         and the triggering audio is streamed first.</li>
+     *     <li>Once the intent detection stops the detector returns to the low-power tier.</li>
+     * </ul>
+     * Intent detection shouldn't be started {@link #startIntentDetection() explicitly} while listening,
+     * since the mic is held by the listener.
+     *
+     * @return <code>false</code> if the listening hasn't been started, i.e. if the detector is closed,
+     *         an intent detection is running or the previous listener hasn't released the mic yet.
+     * @see #getLowPowerListener()
+     * @see #stopListening()
+     */
+    public boolean startListening(EnergyTrigger trigger) {
+        return startListening(trigger, null);
+    }
+
+    /**
+     * @param audioSource Replaces the default mic source of the listener (see {@link LowPowerListener#setAudioSource(AudioSource)}).
+     *                    It's released by the listener, or right away if the listening doesn't start.
+     * @see #startListening(EnergyTrigger)
+     */
+    public synchronized boolean startListening(EnergyTrigger trigger, @Nullable AudioSource audioSource) {
+
+        String refusal = null;
+        if (getState() == State.CLOSED) {
+            refusal = "detector is closed";
+        } else if (lowPowerListener != null && !lowPowerListener.isStopped()) {
+            refusal = String.format("previous listener is still running [state=%s]", lowPowerListener.getState());
+        } else if (isRunning()) {
+            // The mic is held by the intent detection.
+            refusal = "intent detection is running";
+        }
+
+        if (refusal != null) {
+            Log.w(TAG, String.format("Low-power listening not started: %s", refusal));
+            if (audioSource != null) {
+                audioSource.release();
+            }
+            return false;
+        }
+
+        // If the detection can't start, the active source is released (and the mic returned to the idle tier)
+        // by startIntentDetectionInternal.
+        lowPowerListener = new LowPowerListener(trigger, (listener, activeSource) ->
+                startIntentDetectionInternal(null, activeSource));
+        lowPowerListener.setAudioSource(audioSource);
+        return lowPowerListener.start();
+    }
+
+    /**
+     * @see #stopListening(Runnable)
+     */
+    public void stopListening() {
+        stopListening(null);
+    }
+
+    /**
+     * Stops the low-power listening including the intent detection it has triggered.
+     * Listening can't be {@link #startListening(EnergyTrigger) started} again
+     * until the listener has released the mic.
+     *
+     * @param stoppedCallback Invoked once the listener has released the mic (immediately if not listening).
+     */
+    public synchronized void stopListening(@Nullable Runnable stoppedCallback) {
+        if (lowPowerListener != null) {
+            lowPowerListener.stop(stoppedCallback);
+            requestStop();
+        } else if (stoppedCallback != null) {
+            stoppedCallback.run();
+        }
+    }
+
+    /**
+     * @return The last low-power listener (e.g. to read the CPU time and wakeups of each tier) or <code>null</code>.
+     *         The listener is kept after {@link #stopListening()} to expose its {@link LowPowerListener#getState() state}
+     *         and stats.
+     */
+    @Nullable
+    public synchronized LowPowerListener getLowPowerListener() {
+        return lowPowerListener;
+    }
+
     /**
      * @see #startIntentDetection(AudioRecordingThreadInitializer)
      */
@@ -137,26 +684,68 @@ public class DialogflowIntentDetector implements AutoCloseable {
      * of Dialogflow to detect the desired intent.
      */
     public void startIntentDetection(@Nullable AudioRecordingThreadInitializer audioRecordingThreadInitializer) {
+        startIntentDetectionInternal(audioRecordingThreadInitializer, null);
+    }
+
+    /**
+     * @param audioSource Source owned by the detection from now on. It's released exactly once: by the recording
+     *                    thread, or right away if the detection doesn't start.
+     * @return <code>false</code> if the intent detection hasn't been started
+     *         (in which case the audio source of the thread has been released, if any).
+     */
+    private boolean startIntentDetectionInternal(@Nullable AudioRecordingThreadInitializer audioRecordingThreadInitializer,
+                                                 @Nullable AudioSource audioSource) {
+
+        Lifecycle current = lifecycle.get();
+        if (!isStartable(current.state)) {
+            if (BuildConfig.DEBUG) Log.d(TAG, String.format("Intent detection can't be started [state=%s]", current.state));
+            if (audioSource != null) audioSource.release();
+            return false;
+        }
 
-        synchronized (monitor) {
+        AudioRecordingThread audioRecordingThread = new AudioRecordingThread();
+        audioRecordingThread.setAudioSource(audioSource);
 
-            if (audioRecordingThread != null && !audioRecordingThread.isStopRequested()) {
-                if (BuildConfig.DEBUG) Log.d(TAG, AudioRecordingThread.class.getSimpleName() + " is already running.");
-                return;
-            }
+        DetectionReceiver detection;
+        OfflineUtteranceQueue queue = offlineQueue;
+        if (queue != null && !queue.isNetworkAvailable()) {
+            detection = new OfflineRecordingReceiver(audioRecordingThread, queue);
+        } else {
+            detection = new DialogflowStreamingReceiver(audioRecordingThread);
+        }
+        audioRecordingThread.addAudioDataReceiver(detection);
 
-            audioRecordingThread = new AudioRecordingThread();
-            audioRecordingThread.addAudioDataReceiver(new DialogflowStreamingReceiver());
+        // The detector becomes startable again only once the mic has been released,
+        // otherwise a new recording could overlap with the one being stopped.
+        audioRecordingThread.setReleasedCallback(detection::onAudioReleased);
 
-            // Also allow the client of this library to do some
-            // custom configuration if desired.
-            if (audioRecordingThreadInitializer != null) {
-                audioRecordingThreadInitializer.onAudioRecordingThreadInit(audioRecordingThread);
-            }
+        // Also allow the client of this library to do some
+        // custom configuration if desired.
+        if (audioRecordingThreadInitializer != null) {
+            audioRecordingThreadInitializer.onAudioRecordingThreadInit(audioRecordingThread);
+        }
+
+        if (!lifecycle.compareAndSet(current, new Lifecycle(State.STARTING, detection))) {
+            if (BuildConfig.DEBUG) Log.d(TAG, String.format("Intent detection has been started concurrently [state=%s]", getState()));
+            // Releases the audio source of the thread which will never run.
+            audioRecordingThread.requestStop();
+            return false;
+        }
+
+        stopRequested = false;
 
-            stopRequested = false;
-            audioRecordingThread.startRecording();
+        liveRecordings.incrementAndGet();
+        if (!audioRecordingThread.startRecording()) {
+            // Stop has been requested (or the detector has been closed)
+            // before the recording thread could even start.
+            liveRecordings.decrementAndGet();
+            detection.abandon();
         }
+        return true;
+    }
+
+    private static boolean isStartable(State state) {
+        return state == State.IDLE || state == State.STOPPED;
     }
 
     /**
@@ -173,24 +762,91 @@ public class DialogflowIntentDetector implements AutoCloseable {
     /**
      * Same as {@link #requestStop()}, but enables the client to
      * be notified on stop event (<code>stoppedCallback</code>).
+     * <code>stoppedCallback</code> is invoked once the mic has been released and the stream has terminated,
+     * therefore it may start a new intent detection right away.
      * <code>stoppedCallback</code> is invoked immediately
      * is the detector is already stopped.
      */
     public void requestStop(@Nullable Runnable stoppedCallback) {
-        synchronized (monitor) {
+        if (!requestStop(null, true, stoppedCallback)) {
+            // already stopped
+            // notify the observer immediately
+            if (stoppedCallback != null) stoppedCallback.run();
+        }
+    }
+
+    /**
+     * Moves the lifecycle to {@link State#DRAINING} and requests the stop of audio recording.
+     *
+     * @param expectedDetection If not <code>null</code> the stop is requested only if this
+     *                          detection is still the current one.
+     * @param explicit <code>true</code> if the stop has been requested by the client of this library.
+     * @param stoppedCallback Invoked once the detection has finished (the mic has been released
+     *                        and the stream has terminated).
+     * @return <code>false</code> if there is no recording to be stopped.
+     */
+    private boolean requestStop(@Nullable DetectionReceiver expectedDetection, boolean explicit, @Nullable Runnable stoppedCallback) {
+        for (;;) {
+            Lifecycle current = lifecycle.get();
+            DetectionReceiver detection = current.detection;
+
+            if (detection == null || (expectedDetection != null && expectedDetection != detection)) {
+                return false;
+            }
 
-            if (audioRecordingThread != null && !isStopRequested()) {
-                // running and no stop has yet been request
-                audioRecordingThread.requestStop(stoppedCallback);
-                stopRequested = true;
+            switch (current.state) {
 
-            } else if (audioRecordingThread == null) {
-                // already stopped
-                // notify the observer immediately
-                if (stoppedCallback != null) stoppedCallback.run();
+                case STARTING:
+                case STREAMING:
+                    // running and no stop has yet been request
+                    if (!lifecycle.compareAndSet(current, new Lifecycle(State.DRAINING, detection))) {
+                        continue;
+                    }
+                    if (explicit) stopRequested = true;
+                    detection.addStoppedCallback(stoppedCallback);
+                    detection.audioRecordingThread.requestStop();
+                    return true;
+
+                case DRAINING:
+                    // previously requested stop is in progress,
+                    // just make sure the callback is invoked once stopped
+                    if (explicit) stopRequested = true;
+                    detection.addStoppedCallback(stoppedCallback);
+                    return true;
+
+                default:
+                    return false;
+            }
+        }
+    }
+
+    /**
+     * Called once the gRPC stream is ready to accept audio data.
+     */
+    private void onStreaming(DetectionReceiver detection) {
+        for (;;) {
+            Lifecycle current = lifecycle.get();
+            if (current.detection != detection || current.state != State.STARTING) {
+                return;
+            }
+            if (lifecycle.compareAndSet(current, new Lifecycle(State.STREAMING, detection))) {
+                return;
+            }
+        }
+    }
 
-            } else {
-                // previously requested stop is in progress
+    /**
+     * Called once the detection has finished: the audio source has been released
+     * and the stream has terminated.
+     */
+    private void onDetectionFinished(DetectionReceiver detection) {
+        for (;;) {
+            Lifecycle current = lifecycle.get();
+            if (current.detection != detection || current.state == State.CLOSED) {
+                return;
+            }
+            if (lifecycle.compareAndSet(current, new Lifecycle(State.STOPPED, null))) {
+                return;
             }
         }
     }
@@ -209,25 +865,44 @@ public class DialogflowIntentDetector implements AutoCloseable {
      * </ul>
      */
     public boolean isStopRequested() {
-        synchronized (monitor) {
-            return stopRequested;
-        }
+        return stopRequested;
     }
 
+    /**
+     * @return Number of recordings started and not yet stopped (0 or 1 unless recording threads leak).
+     */
+    public int getLiveRecordingCount() {
+        return liveRecordings.get();
+    }
+
+    /**
+     * @return Number of gRPC streams opened and not yet completed (0 or 1 unless streams leak).
+     */
+    public int getOpenStreamCount() {
+        return openStreams.get();
+    }
+
+    /**
+     * @return Current lifecycle state of the detector.
+     */
+    public State getState() {
+        return lifecycle.get().state;
+    }
+
+    /**
+     * @return <code>true</code> if audio is being recorded (including the recording being stopped).
+     */
     public boolean isRunning() {
-        synchronized (monitor) {
-            if (audioRecordingThread != null) {
-                return audioRecordingThread.isRecording();
-            } else {
-                return false;
-            }
-        }
+        State state = getState();
+        return state == State.STARTING || state == State.STREAMING || state == State.DRAINING;
     }
 
+    /**
+     * @return <code>true</code> if audio is being recorded and no stop has been requested yet.
+     */
     public boolean isActive() {
-        synchronized (monitor) {
-            return isRunning() && !isStopRequested();
-        }
+        State state = getState();
+        return state == State.STARTING || state == State.STREAMING;
     }
 
     /**
@@ -236,11 +911,141 @@ public class DialogflowIntentDetector implements AutoCloseable {
     @Override
     public void close() {
 
-        requestStop();
+        Lifecycle previous = lifecycle.getAndSet(new Lifecycle(State.CLOSED, null));
+        if (previous.state == State.CLOSED) {
+            return;
+        }
+
+        if (previous.detection != null) {
+            stopRequested = true;
+            previous.detection.audioRecordingThread.requestStop();
+        }
 
-        synchronized (monitor) {
-            if (dialogflowSessionsClient != null) {
-                dialogflowSessionsClient.close();
+        if (dialogflowSessionsClient != null) {
+            dialogflowSessionsClient.close();
+        }
+
+        deadlineScheduler.shutdownNow();
+
+        synchronized (this) {
+            if (lowPowerListener != null) {
+                lowPowerListener.stop();
+            }
+            if (offlineQueue != null) {
+                offlineQueue.stopMonitoring();
+            }
+            if (offlineExecutor != null) {
+                offlineExecutor.shutdownNow();
+            }
+        }
+    }
+
+    /**
+     * {@link AudioDataReceiver} of a single intent detection (a new one is created for each detection).
+     * <p>The detection finishes once both the mic has been released and the receiver has {@link #finish(Runnable) finished}.
+     * Only then the detector becomes startable again and the terminal callback is delivered to the observer,
+     * so that neither the recordings nor the observer callbacks of subsequent detections overlap.</p>
+     */
+    abstract class DetectionReceiver implements AudioDataReceiver {
+
+        final AudioRecordingThread audioRecordingThread;
+
+        /**
+         * Release of the mic and finish of the receiver.
+         */
+        private final AtomicInteger pendingParts = new AtomicInteger(2);
+
+        @Nullable
+        private volatile Runnable terminalCallback;
+
+        /**
+         * Callback(s) of {@link DialogflowIntentDetector#requestStop(Runnable)} invoked exactly once
+         * after the detection has finished.
+         */
+        private final AtomicReference<Runnable> stoppedCallback = new AtomicReference<>();
+        private volatile boolean finished;
+
+        DetectionReceiver(AudioRecordingThread audioRecordingThread) {
+            this.audioRecordingThread = audioRecordingThread;
+        }
+
+        /**
+         * Called on the recording thread once the audio source has been released.
+         */
+        final void onAudioReleased() {
+            liveRecordings.decrementAndGet();
+            finishPart();
+        }
+
+        /**
+         * @param terminalCallback Callback of the observer (if any) delivered once the detection has finished.
+         */
+        final void finish(@Nullable Runnable terminalCallback) {
+            this.terminalCallback = terminalCallback;
+            finishPart();
+        }
+
+        /**
+         * Finishes the detection whose recording has never started.
+         */
+        final void abandon() {
+            pendingParts.set(0);
+            onFinished();
+        }
+
+        /**
+         * Feeds the endpointer with the frame, reusing the RMS already metered by the health monitor if possible.
+         */
+        final boolean processEndpointer(SpeechEndpointer endpointer, byte[] data, int length) {
+            AudioHealthMonitor health = audioRecordingThread.getHealthMonitor();
+            return health.isLevelMeteringEnabled()
+                    ? endpointer.processLevel(health.getLastRms(), length)
+                    : endpointer.process(data, length);
+        }
+
+        private void finishPart() {
+            if (pendingParts.decrementAndGet() == 0) {
+                onFinished();
+            }
+        }
+
+        private void onFinished() {
+            synchronized (observerLock) {
+                onDetectionFinished(this);
+                finished = true;
+
+                Runnable callback = terminalCallback;
+                if (callback != null) {
+                    callback.run();
+                }
+            }
+            runStoppedCallback();
+        }
+
+        final void addStoppedCallback(@Nullable Runnable callback) {
+            if (callback == null)
+                return;
+
+            for (;;) {
+                Runnable prev = stoppedCallback.get();
+                Runnable next = prev == null ? callback : () -> {
+                    prev.run();
+                    callback.run();
+                };
+                if (stoppedCallback.compareAndSet(prev, next))
+                    break;
+            }
+
+            // The detection might have finished before it could see our callback.
+            if (finished) {
+                runStoppedCallback();
+            }
+        }
+
+        private void runStoppedCallback() {
+            Runnable callback = stoppedCallback.getAndSet(null);
+            if (callback != null) {
+                callback.run();
             }
         }
     }
@@ -248,16 +1053,87 @@ public class DialogflowIntentDetector implements AutoCloseable {
     /**
      * {@link AudioDataReceiver} which immediately streams the received audio data
      * down to Dialogflow server by utilizing {@link #dialogflowSessionsClient}.
+     * A new receiver (and a new gRPC stream) is created for each intent detection.
      */
-    class DialogflowStreamingReceiver implements AudioDataReceiver {
+    class DialogflowStreamingReceiver extends DetectionReceiver {
 
         private static final String TAG = "DialogflowStreamingRec";
 
+        /**
+         * How long to wait for the stream at a time before checking whether
+         * the stop has been requested meanwhile.
+         */
+        private static final long STREAM_READY_POLL_MS = 100;
+
+        /**
+         * Released once the gRPC stream is ready (or has failed).
+         */
+        private final CountDownLatch streamReady = new CountDownLatch(1);
+
+        private volatile ClientStream<StreamingDetectIntentRequest> clientStream;
+        private volatile boolean streamOpened;
+        private volatile boolean recordingStopped;
+        private final AtomicBoolean sendClosed = new AtomicBoolean();
+
+        @Nullable
+        private final SpeechEndpointer endpointer;
+        private volatile long localEndOfSpeechNanos;
+        private final AtomicBoolean serverEndOfSpeech = new AtomicBoolean();
+
+        @Nullable
+        private final OutputAudioPlayback outputAudioPlayback;
+        private final AtomicBoolean outputAudioPlayed = new AtomicBoolean();
+
+        private final DetectionTimeouts timeouts;
+        private volatile StreamController controller;
+        private volatile boolean speechDetected;
+        private volatile ScheduledFuture<?> streamReadyDeadline;
+        private volatile ScheduledFuture<?> noSpeechDeadline;
+        private volatile ScheduledFuture<?> maxUtteranceDeadline;
+        private volatile ScheduledFuture<?> finalResultDeadline;
+
+        /**
+         * Set once any of the deadlines expires.
+         */
+        private final AtomicReference<DialogflowTimeoutException> timeout = new AtomicReference<>();
+
+        /**
+         * Guards that exactly one of {@link DialogflowIntentObserver#onError} or
+         * {@link DialogflowIntentObserver#onComplete} is delivered.
+         */
+        private final AtomicBoolean terminated = new AtomicBoolean();
+
+        DialogflowStreamingReceiver(AudioRecordingThread audioRecordingThread) {
+            super(audioRecordingThread);
+            this.outputAudioPlayback = DialogflowIntentDetector.this.outputAudioPlayback;
+            this.timeouts = DialogflowIntentDetector.this.timeouts;
+
+            SpeechEndpointer.Aggressiveness aggressiveness = localEndpointing;
+            this.endpointer = aggressiveness == null ? null : new SpeechEndpointer(aggressiveness);
+        }
+
         @Override
         public void onAudioRecordingStarted() {
             if (BuildConfig.DEBUG) Log.d(TAG, String.format("onAudioRecordingStarted() [thread=%s]", Thread.currentThread().getName()));
 
-            dialogflowSessionsClient.streamingDetectIntentCallable().call(new BidiStreamObserverImpl());
+            streamReadyDeadline = scheduleDeadline(timeouts.getStreamReadyMillis(),
+                    () -> onDeadlineExpired(DialogflowTimeoutException.Reason.STREAM_READY, timeouts.getStreamReadyMillis()));
+            noSpeechDeadline = scheduleDeadline(timeouts.getNoSpeechMillis(),
+                    () -> onDeadlineExpired(DialogflowTimeoutException.Reason.NO_SPEECH, timeouts.getNoSpeechMillis()));
+            maxUtteranceDeadline = scheduleDeadline(timeouts.getMaxUtteranceMillis(),
+                    () -> onDeadlineExpired(DialogflowTimeoutException.Reason.MAX_UTTERANCE, timeouts.getMaxUtteranceMillis()));
+
+            streamOpened = true;
+            openStreams.incrementAndGet();
+            try {
+                dialogflowSessionsClient.streamingDetectIntentCallable().call(new BidiStreamObserverImpl(this));
+            } catch (RuntimeException e) {
+                // e.g. the client has been closed meanwhile
+                Log.e(TAG, "Failed to open the stream", e);
+                onStreamFailed();
+                requestStop(this, false, null);
+                terminate(null);
+            }
         }
 
         @Override
@@ -267,36 +1143,161 @@ public class DialogflowIntentDetector implements AutoCloseable {
             // We further pass the buffer to Dialogflow to detect the intent - it is configured to use
             // the streaming API. We will be notified once the intent is detected.
 
-            synchronized (monitor) {
+            if (audioRecordingThread.isStopRequested()) {
+                if (BuildConfig.DEBUG) Log.d(TAG, "Received audio data ignored [audioRecordingThread.isStopRequested() = true]");
+                return;
+            }
 
-                if (audioRecordingThread.isStopRequested()) {
-                    if (BuildConfig.DEBUG) {
-                        Log.d(TAG, String.format(
-                                "Received audio data ignored [audioRecordingThread.isStopRequested() = %s]",
-                                audioRecordingThread.isStopRequested()));
-                    }
-                    return;
+            if (!awaitStreamReady()) {
+                return;
+            }
+
+            ClientStream<StreamingDetectIntentRequest> stream = clientStream;
+            if (stream == null || audioRecordingThread.isStopRequested()) {
+                return;
+            }
+
+            try {
+                stream.send(
+                        StreamingDetectIntentRequest.newBuilder()
+                                .setInputAudio(ByteString.copyFrom(audioData, 0, length))
+                                .build());
+
+            } catch (Throwable t) {
+                Log.e(TAG, "Streaming intent detection failed", t);
+                // TODO How to behave in this case? Logging is certainly not enough.
+            }
+
+            if (endpointer != null) {
+                boolean endOfSpeech = processEndpointer(endpointer, audioData, length);
+                if (endpointer.isSpeechStarted()) {
+                    onSpeechDetected();
                 }
+                if (endOfSpeech) {
+                    onLocalEndOfSpeech();
+                }
+            }
+        }
 
-                if (dialogflowClientStream == null) {
-                    if (BuildConfig.DEBUG) Log.d(TAG, "Waiting for clientStream initialization");
-                    try {
-                        monitor.wait();
-                    } catch (InterruptedException e) {
-                        throw new RuntimeException(e);
-                    }
+        /**
+         * Called once any speech has been detected (locally or by the server).
+         */
+        void onSpeechDetected() {
+            if (!speechDetected) {
+                speechDetected = true;
+                cancelDeadline(noSpeechDeadline);
+            }
+        }
+
+        /**
+         * Called from gRPC thread once the stream has started.
+         */
+        void onStart(StreamController controller) {
+            this.controller = controller;
+
+            // Deadline might have expired before the stream has started.
+            if (timeout.get() != null) {
+                controller.cancel();
+            }
+        }
+
+        /**
+         * Cancels the stream and releases audio recording.
+         * The timeout is delivered to the observer once gRPC reports the cancellation.
+         */
+        private void onDeadlineExpired(DialogflowTimeoutException.Reason reason, long millis) {
+
+            if (terminated.get() || !timeout.compareAndSet(null, new DialogflowTimeoutException(reason, millis))) {
+                return;
+            }
+
+            Log.w(TAG, String.format("Intent detection deadline expired [reason=%s, millis=%d]", reason, millis));
+
+            requestStop(this, false, null);
+
+            // Release the recording thread possibly waiting for the stream.
+            streamReady.countDown();
+
+            StreamController c = controller;
+            if (c != null) {
+                c.cancel();
+            }
+        }
+
+        /**
+         * Called from gRPC thread once the stream has terminated.
+         * @param terminalCallback Callback of the observer delivered once the detection has finished.
+         * @return <code>false</code> if the stream has already been terminated.
+         */
+        boolean terminate(@Nullable Runnable terminalCallback) {
+            if (!terminated.compareAndSet(false, true)) {
+                return false;
+            }
+            if (streamOpened) {
+                openStreams.decrementAndGet();
+            }
+            cancelDeadline(streamReadyDeadline);
+            cancelDeadline(noSpeechDeadline);
+            cancelDeadline(maxUtteranceDeadline);
+            cancelDeadline(finalResultDeadline);
+            finish(terminalCallback);
+            return true;
+        }
+
+        /**
+         * Closes the upstream as soon as the local endpointer detects the end of speech.
+         * The downstream stays open to receive the final result of the server.
+         */
+        private void onLocalEndOfSpeech() {
+            if (serverEndOfSpeech.get()) {
+                // The server has been first, the capture is just being stopped.
+                return;
+            }
+            if (BuildConfig.DEBUG) Log.d(TAG, String.format("Local end of speech [audioMs=%d]", endpointer.getEndOfSpeechAudioMs()));
+
+            localEndOfSpeechNanos = System.nanoTime();
+            endpointingStats.onLocalEndOfSpeech();
+
+            requestStop(this, false, null);
+            closeSend();
+        }
+
+        /**
+         * Called from gRPC thread for each response to play the output audio (at most once per utterance).
+         */
+        void onResponse(StreamingDetectIntentResponse response) {
+            if (outputAudioPlayback != null && !outputAudioPlayed.get()) {
+                if (outputAudioPlayback.onResponse(response, lngCode)) {
+                    outputAudioPlayed.set(true);
                 }
+            }
+        }
 
-                try {
-                    dialogflowClientStream.send(
-                            StreamingDetectIntentRequest.newBuilder()
-                                    .setInputAudio(ByteString.copyFrom(audioData, 0, length))
-                                    .build());
+        /**
+         * Called from gRPC thread on <code>END_OF_SINGLE_UTTERANCE</code>.
+         */
+        void onServerEndOfSpeech() {
+            if (serverEndOfSpeech.compareAndSet(false, true)) {
+                endpointingStats.onServerEndOfSpeech(endpointer != null, localEndOfSpeechNanos);
+            }
+        }
 
-                } catch (Throwable t) {
-                    Log.e(TAG, "Streaming intent detection failed", t);
-                    // TODO How to behave in this case? Logging is certainly not enough.
+        /**
+         * Blocks the recording thread until the gRPC stream is ready.
+         * @return <code>false</code> if the stop has been requested meanwhile.
+         */
+        private boolean awaitStreamReady() {
+            try {
+                while (!streamReady.await(STREAM_READY_POLL_MS, TimeUnit.MILLISECONDS)) {
+                    if (BuildConfig.DEBUG) Log.d(TAG, "Waiting for clientStream initialization");
+                    if (audioRecordingThread.isStopRequested()) {
+                        return false;
+                    }
                 }
+                return true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
             }
         }
 
@@ -308,12 +1309,222 @@ public class DialogflowIntentDetector implements AutoCloseable {
                         Thread.currentThread().getName()));
             }
 
-            synchronized (monitor) {
-                if (dialogflowClientStream != null) {
-                    dialogflowClientStream.closeSend();
-                    dialogflowClientStream = null;
+            recordingStopped = true;
+
+            // The recording may also have stopped on its own (fatal error of the mic).
+            requestStop(this, false, null);
+            closeSend();
+
+            if (!streamOpened) {
+                // The recording has failed to start, there is no stream to wait for.
+                terminate(null);
+            }
+        }
+
+        /**
+         * Called from gRPC thread once the stream is ready to accept audio data.
+         */
+        void onStreamReady(ClientStream<StreamingDetectIntentRequest> stream) {
+            cancelDeadline(streamReadyDeadline);
+            clientStream = stream;
+            onStreaming(this);
+            streamReady.countDown();
+
+            // Recording might have stopped before the stream became ready.
+            if (recordingStopped) {
+                closeSend();
+            }
+        }
+
+        /**
+         * Called from gRPC thread if the stream failed.
+         */
+        void onStreamFailed() {
+            streamReady.countDown();
+        }
+
+        /**
+         * Half-closes the stream exactly once, no matter whether the recording
+         * stops before or after the stream becomes ready.
+         */
+        private void closeSend() {
+            if (timeout.get() != null) {
+                // The stream has been cancelled by the expired deadline.
+                return;
+            }
+            ClientStream<StreamingDetectIntentRequest> stream = clientStream;
+            if (stream != null && sendClosed.compareAndSet(false, true)) {
+                try {
+                    stream.closeSend();
+                } catch (Throwable t) {
+                    Log.e(TAG, "Failed to close the stream", t);
+                }
+
+                // No more audio will be sent, now it's only up to the server.
+                cancelDeadline(noSpeechDeadline);
+                cancelDeadline(maxUtteranceDeadline);
+                if (!terminated.get()) {
+                    finalResultDeadline = scheduleDeadline(timeouts.getFinalResultMillis(),
+                            () -> onDeadlineExpired(DialogflowTimeoutException.Reason.FINAL_RESULT, timeouts.getFinalResultMillis()));
+                }
+            }
+        }
+
+    }
+
+    /**
+     * {@link AudioDataReceiver} which records the utterance to {@link OfflineUtteranceQueue}
+     * while the network is unavailable. Since there is no server to detect the end of utterance
+     * the local {@link SpeechEndpointer} is always used.
+     */
+    class OfflineRecordingReceiver extends DetectionReceiver {
+
+        private static final String TAG = "OfflineRecordingRec";
+
+        private final OfflineUtteranceQueue queue;
+        private final SpeechEndpointer endpointer;
+        private final long maxUtteranceBytes;
+        private final DetectionTimeouts timeouts;
+
+        @Nullable
+        private OfflineUtteranceQueue.Writer writer;
+
+        /**
+         * Error to be delivered to {@link DialogflowIntentObserver#onError} once the recording has stopped.
+         */
+        private final AtomicReference<Throwable> error = new AtomicReference<>();
+
+        private volatile ScheduledFuture<?> noSpeechDeadline;
+
+        /**
+         * There is no gRPC stream while offline, cancelling the "stream" stops the recording
+         * and discards the utterance.
+         */
+        private final StreamController controller = new StreamController() {
+
+            @Override
+            public void cancel() {
+                onFailed(new CancellationException("Offline utterance cancelled"));
+            }
+
+            @Override
+            public void disableAutoInboundFlowControl() {
+            }
+
+            @Override
+            public void request(int count) {
+            }
+        };
+
+        OfflineRecordingReceiver(AudioRecordingThread audioRecordingThread, OfflineUtteranceQueue queue) {
+            super(audioRecordingThread);
+            this.queue = queue;
+            this.timeouts = DialogflowIntentDetector.this.timeouts;
+
+            SpeechEndpointer.Aggressiveness aggressiveness = localEndpointing;
+            this.endpointer = new SpeechEndpointer(aggressiveness != null ? aggressiveness : SpeechEndpointer.Aggressiveness.MEDIUM);
+
+            // bytes per ms = SAMPLE_RATE * 2 / 1000
+            this.maxUtteranceBytes = timeouts.getMaxUtteranceMillis() * AudioRecordingConstants.SAMPLE_RATE * 2 / 1000;
+        }
+
+        @Override
+        public void onAudioRecordingStarted() {
+            if (BuildConfig.DEBUG) Log.d(TAG, "Network unavailable, recording utterance to offline queue");
+
+            synchronized (observerLock) {
+                observer.onStart(DialogflowIntentDetector.this, controller);
+            }
+
+            try {
+                writer = queue.newUtterance();
+            } catch (IOException e) {
+                Log.e(TAG, "Failed to create offline utterance", e);
+                onFailed(e);
+                return;
+            }
+
+            noSpeechDeadline = scheduleDeadline(timeouts.getNoSpeechMillis(),
+                    () -> onFailed(new DialogflowTimeoutException(DialogflowTimeoutException.Reason.NO_SPEECH, timeouts.getNoSpeechMillis())));
+            onStreaming(this);
+        }
+
+        @Override
+        public void onAudioDataReceived(byte[] data, int length) {
+
+            if (writer == null || audioRecordingThread.isStopRequested()) {
+                return;
+            }
+
+            try {
+                writer.write(data, length);
+            } catch (IOException e) {
+                Log.e(TAG, "Failed to write offline utterance", e);
+                onFailed(e);
+                return;
+            }
+
+            boolean endOfSpeech = processEndpointer(endpointer, data, length);
+            if (endpointer.isSpeechStarted()) {
+                cancelDeadline(noSpeechDeadline);
+            }
+            if (endOfSpeech || (maxUtteranceBytes > 0 && writer.getBytes() >= maxUtteranceBytes)) {
+                requestStop(this, false, null);
+            }
+        }
+
+        /**
+         * Stops the recording, the utterance is discarded and the <code>t</code> is delivered to the observer.
+         */
+        private void onFailed(Throwable t) {
+            if (error.compareAndSet(null, t)) {
+                if (t instanceof DialogflowTimeoutException) {
+                    Log.w(TAG, t.getMessage());
+                }
+                requestStop(this, false, null);
+            }
+        }
+
+        @Override
+        public void onAudioRecordingStopped() {
+
+            // The recording may also have stopped on its own (fatal error of the mic).
+            requestStop(this, false, null);
+            cancelDeadline(noSpeechDeadline);
+
+            if (writer != null) {
+                if (error.get() == null && endpointer.isSpeechStarted()) {
+                    commit(writer);
+                } else {
+                    // failed or no speech, nothing to detect the intent from
+                    writer.discard();
                 }
-                audioRecordingThread = null;
+                writer = null;
+            }
+
+            Throwable t = error.get();
+            finish(t != null
+                    ? () -> observer.onError(DialogflowIntentDetector.this, t)
+                    : () -> observer.onComplete(DialogflowIntentDetector.this));
+        }
+
+        private void commit(OfflineUtteranceQueue.Writer writer) {
+            try {
+                writer.commit();
+            } catch (IOException e) {
+                Log.e(TAG, "Failed to commit offline utterance", e);
+                error.compareAndSet(null, e);
+                return;
+            }
+
+            if (observer instanceof OfflineUtteranceObserver) {
+                ((OfflineUtteranceObserver) observer).onOfflineUtteranceQueued(
+                        DialogflowIntentDetector.this, writer.getCaptureTimeMillis());
+            }
+
+            // The network might have come back while recording.
+            if (queue.isNetworkAvailable()) {
+                flushOfflineQueue();
             }
         }
 
@@ -323,21 +1534,33 @@ public class DialogflowIntentDetector implements AutoCloseable {
 
         private static final String TAG = "BidiStreamObserverImpl";
 
+        private final DialogflowStreamingReceiver receiver;
+
+        /**
+         * gRPC calls {@link #onReady} each time the stream becomes ready again (flow control),
+         * but the stream is set up just once.
+         */
+        private final AtomicBoolean ready = new AtomicBoolean();
+
+        BidiStreamObserverImpl(DialogflowStreamingReceiver receiver) {
+            this.receiver = receiver;
+        }
+
         @Override
         public void onReady(ClientStream<StreamingDetectIntentRequest> stream) {
             if (BuildConfig.DEBUG) Log.d(TAG, String.format("onReady() [thread=%s]", Thread.currentThread().getName()));
 
+            if (!ready.compareAndSet(false, true)) {
+                return;
+            }
+
             // The first request must **only** contain the audio configuration.
             sendAudioConfig(stream);
 
-            synchronized (monitor) {
-                dialogflowClientStream = stream;
-
-                // The bidiStream is ready for streaming the audio up to server.
-                // Release the audio recording thread which is waiting until the
-                // networking client is ready.
-                monitor.notify();
-            }
+            // The bidiStream is ready for streaming the audio up to server.
+            // Release the audio recording thread which is waiting until the
+            // networking client is ready.
+            receiver.onStreamReady(stream);
         }
 
         private void sendAudioConfig(ClientStream<StreamingDetectIntentRequest> stream) {
@@ -361,17 +1584,25 @@ public class DialogflowIntentDetector implements AutoCloseable {
 
             QueryInput queryInput = QueryInput.newBuilder().setAudioConfig(inputAudioConfig).build();
 
-            stream.send(
-                    StreamingDetectIntentRequest.newBuilder()
-                            .setSession(dialogflowSessionName.toString())
-                            .setQueryInput(queryInput)
-                            .build());
+            StreamingDetectIntentRequest.Builder request = StreamingDetectIntentRequest.newBuilder()
+                    .setSession(dialogflowSessionName.toString())
+                    .setQueryInput(queryInput);
+
+            // Let the server synthesize the fulfillment text within the same call.
+            if (receiver.outputAudioPlayback != null) {
+                request.setOutputAudioConfig(receiver.outputAudioPlayback.buildOutputAudioConfig());
+            }
+
+            stream.send(request.build());
         }
 
         @Override
         public void onStart(StreamController controller) {
             if (BuildConfig.DEBUG) Log.d(TAG, String.format("onStart() [thread=%s]", Thread.currentThread().getName()));
-            observer.onStart(DialogflowIntentDetector.this, controller);
+            synchronized (observerLock) {
+                receiver.onStart(controller);
+                observer.onStart(DialogflowIntentDetector.this, controller);
+            }
         }
 
         @Override
@@ -379,6 +1610,11 @@ public class DialogflowIntentDetector implements AutoCloseable {
             if (BuildConfig.DEBUG) Log.d(TAG, String.format("onResponse() [thread=%s]", Thread.currentThread().getName()));
 
             observer.onResponse(DialogflowIntentDetector.this, response);
+            receiver.onResponse(response);
+
+            if (!response.getRecognitionResult().getTranscript().isEmpty()) {
+                receiver.onSpeechDetected();
+            }
 
             if (!response.getQueryResult().getIntent().getDisplayName().isEmpty())
             {   // Intent detected?
@@ -387,6 +1623,7 @@ public class DialogflowIntentDetector implements AutoCloseable {
 
             } else if (response.getRecognitionResult().getMessageType() == StreamingRecognitionResult.MessageType.END_OF_SINGLE_UTTERANCE)
             {   // End of utterance?
+                receiver.onServerEndOfSpeech();
                 requestStopAudioRecording();
                 observer.onResponseEndOfUtterance(DialogflowIntentDetector.this, response);
             }
@@ -394,24 +1631,25 @@ public class DialogflowIntentDetector implements AutoCloseable {
 
         private void requestStopAudioRecording() {
             if (BuildConfig.DEBUG) Log.d(TAG, String.format("requestStopAudioRecording() [thread=%s]", Thread.currentThread().getName()));
-            synchronized (monitor) {
-                if (audioRecordingThread != null) {
-                    audioRecordingThread.requestStop();
-                }
-            }
+            requestStop(receiver, false, null);
         }
 
         @Override
         public void onError(Throwable t) {
             Log.e(TAG, String.format("onError() [thread=%s]", Thread.currentThread().getName()), t);
+            receiver.onStreamFailed();
             requestStopAudioRecording();
-            observer.onError(DialogflowIntentDetector.this, t);
+
+            // Cancellation caused by an expired deadline is reported as the timeout.
+            DialogflowTimeoutException timeout = receiver.timeout.get();
+            Throwable error = timeout != null ? timeout : t;
+            receiver.terminate(() -> observer.onError(DialogflowIntentDetector.this, error));
         }
 
         @Override
         public void onComplete() {
             if (BuildConfig.DEBUG) Log.d(TAG, String.format("onComplete() [thread=%s]", Thread.currentThread().getName()));
-            observer.onComplete(DialogflowIntentDetector.this);
+            receiver.terminate(() -> observer.onComplete(DialogflowIntentDetector.this));
         }
 
     }
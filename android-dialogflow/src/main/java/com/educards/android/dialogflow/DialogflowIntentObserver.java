@@ -30,6 +30,10 @@ import com.google.cloud.dialogflow.v2.StreamingDetectIntentResponse;
  *   <li>exactly 1 {@link #onError} or {@link #onComplete}
  * </ul>
  * </p>
+ *
+ * <p>The terminal callback ({@link #onError} or {@link #onComplete}) is delivered only once the mic
+ * has been released, therefore a new intent detection may be started right from it
+ * and callbacks of subsequent intent detections never interleave.</p>
  */
 public interface DialogflowIntentObserver {
 
@@ -57,6 +61,8 @@ public interface DialogflowIntentObserver {
 
     /**
      * Delegated callback of {@link com.google.api.gax.rpc.ResponseObserver#onError}.
+     * <p>If any of the {@link DetectionTimeouts deadlines} has expired
+     * <code>t</code> is {@link DialogflowTimeoutException}.</p>
      */
     void onError(DialogflowIntentDetector detector, Throwable t);
 
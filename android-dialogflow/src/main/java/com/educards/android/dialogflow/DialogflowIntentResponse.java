@@ -87,6 +87,14 @@ public class DialogflowIntentResponse {
         return origResponse;
     }
 
+    /**
+     * @return Confidence of the detected intent (<code>0.0</code> - <code>1.0</code>)
+     *         or <code>0.0</code> if there is no response.
+     */
+    public float getIntentDetectionConfidence() {
+        return origResponse == null ? 0f : origResponse.getQueryResult().getIntentDetectionConfidence();
+    }
+
     /**
      * @return Value of a <code>String</code> parameter field or <code>null</code>.
      */
@@ -0,0 +1,54 @@
+/*
+ * Copyright © 2026 Educards Learning, SL.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.educards.android.dialogflow;
+
+/**
+ * Delivered to {@link DialogflowIntentObserver#onError} if any of the {@link DetectionTimeouts deadlines}
+ * of intent detection has expired.
+ */
+public class DialogflowTimeoutException extends RuntimeException {
+
+    /**
+     * Phase of intent detection which has timed out.
+     */
+    public enum Reason {
+
+        /** @see DetectionTimeouts#getStreamReadyMillis() */
+        STREAM_READY,
+
+        /** @see DetectionTimeouts#getNoSpeechMillis() */
+        NO_SPEECH,
+
+        /** @see DetectionTimeouts#getMaxUtteranceMillis() */
+        MAX_UTTERANCE,
+
+        /** @see DetectionTimeouts#getFinalResultMillis() */
+        FINAL_RESULT
+    }
+
+    private final Reason reason;
+
+    public DialogflowTimeoutException(Reason reason, long timeoutMillis) {
+        super(String.format("Intent detection timed out [reason=%s, timeoutMillis=%d]", reason, timeoutMillis));
+        this.reason = reason;
+    }
+
+    public Reason getReason() {
+        return reason;
+    }
+
+}
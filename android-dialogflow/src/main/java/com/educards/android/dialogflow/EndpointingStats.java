@@ -0,0 +1,130 @@
+/*
+ * Copyright © 2026 Educards Learning, SL.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.educards.android.dialogflow;
+
+import com.educards.android.audiorec.SpeechEndpointer;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compares the end of speech detected locally by {@link SpeechEndpointer}
+ * with the end of speech detected by Dialogflow server
+ * (<code>END_OF_SINGLE_UTTERANCE</code>) across all utterances of {@link DialogflowIntentDetector}.
+ *
+ * <p>Whichever side detects the end of speech first stops the capture, therefore the other side
+ * usually doesn't report it at all. The lead is measured only if the local endpointer was first
+ * and the server has reported the end of speech afterwards. Utterances in which the server
+ * was first are counted by {@link #getServerFirstEndpoints()}.</p>
+ *
+ * @see DialogflowIntentDetector#getEndpointingStats()
+ */
+public class EndpointingStats {
+
+    private final AtomicLong localEndpoints = new AtomicLong();
+    private final AtomicLong serverEndpoints = new AtomicLong();
+    private final AtomicLong serverFirstEndpoints = new AtomicLong();
+    private final AtomicLong comparedEndpoints = new AtomicLong();
+    private final AtomicLong totalLeadNanos = new AtomicLong();
+    private volatile long lastLeadNanos;
+
+    void onLocalEndOfSpeech() {
+        localEndpoints.incrementAndGet();
+    }
+
+    /**
+     * @param localEndpointing <code>true</code> if the local endpointer has been running in the same utterance.
+     * @param localEndOfSpeechNanos {@link System#nanoTime()} of the local end of speech
+     *                              of the same utterance or <code>0</code> if none has been detected.
+     */
+    void onServerEndOfSpeech(boolean localEndpointing, long localEndOfSpeechNanos) {
+        serverEndpoints.incrementAndGet();
+        if (!localEndpointing) {
+            return;
+        }
+        if (localEndOfSpeechNanos == 0) {
+            serverFirstEndpoints.incrementAndGet();
+        } else {
+            long lead = System.nanoTime() - localEndOfSpeechNanos;
+            lastLeadNanos = lead;
+            totalLeadNanos.addAndGet(lead);
+            comparedEndpoints.incrementAndGet();
+        }
+    }
+
+    /**
+     * @return Number of utterances closed by the local endpointer (i.e. before the server).
+     */
+    public long getLocalEndpoints() {
+        return localEndpoints.get();
+    }
+
+    /**
+     * @return Number of <code>END_OF_SINGLE_UTTERANCE</code> responses received from the server.
+     */
+    public long getServerEndpoints() {
+        return serverEndpoints.get();
+    }
+
+    /**
+     * @return Number of utterances (with local endpointing enabled) in which the server
+     *         detected the end of speech before the local endpointer.
+     */
+    public long getServerFirstEndpoints() {
+        return serverFirstEndpoints.get();
+    }
+
+    /**
+     * @return Share (0..1) of the utterances closed by the local endpointer among all the utterances
+     *         closed by either side with local endpointing enabled.
+     */
+    public double getLocalFirstRatio() {
+        long local = localEndpoints.get();
+        long total = local + serverFirstEndpoints.get();
+        return total == 0 ? 0 : (double) local / total;
+    }
+
+    /**
+     * @return How much sooner (in ms) the local endpointer detected the end of speech than the server did
+     *         in the last utterance detected by both.
+     */
+    public long getLastLeadMillis() {
+        return lastLeadNanos / 1_000_000;
+    }
+
+    /**
+     * @return Average of {@link #getLastLeadMillis()} over all the utterances detected by both.
+     *         Always positive since the server-first utterances can't be measured,
+     *         see {@link #getLocalFirstRatio()} to account for them.
+     */
+    public long getAverageLeadMillis() {
+        long compared = comparedEndpoints.get();
+        return compared == 0 ? 0 : totalLeadNanos.get() / compared / 1_000_000;
+    }
+
+    @Override
+    public String toString() {
+        return "EndpointingStats{" +
+                "localEndpoints=" + getLocalEndpoints() +
+                ", serverEndpoints=" + getServerEndpoints() +
+                ", serverFirstEndpoints=" + getServerFirstEndpoints() +
+                ", localFirstRatio=" + getLocalFirstRatio() +
+                ", lastLeadMillis=" + getLastLeadMillis() +
+                ", averageLeadMillis=" + getAverageLeadMillis() +
+                '}';
+    }
+
+}
@@ -0,0 +1,709 @@
+/*
+ * Copyright © 2026 Educards Learning, SL.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.educards.android.dialogflow;
+
+import com.google.cloud.dialogflow.v2.Intent;
+import com.google.cloud.dialogflow.v2.QueryResult;
+import com.google.cloud.dialogflow.v2.StreamingDetectIntentResponse;
+import com.google.protobuf.ListValue;
+import com.google.protobuf.Struct;
+import com.google.protobuf.Value;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import javax.annotation.Nullable;
+
+/**
+ * On-device intent classifier of text queries built from an exported Dialogflow agent.
+ *
+ * <ul>
+ *     <li>Training phrases of all the intents are indexed as TF-IDF vectors of word unigrams and bigrams.
+ *         The index is an inverted index kept in primitive arrays.</li>
+ *     <li>Entity values (custom entities and <code>@sys.number</code>) are replaced by the entity placeholder
+ *         both in training phrases and in queries, and extracted as parameters of the result.</li>
+ *     <li>Entity values are bound to the parameters by occurrence, i.e. the n-th value of an entity
+ *         in the query is bound to the n-th placeholder of that entity in the training phrase
+ *         (<code>from @city to @city</code>). A parameter referenced more than once becomes a list.</li>
+ *     <li>Confidence of the result is the cosine similarity of the query to the closest training phrase.</li>
+ *     <li>The classifier has no session, therefore it can't tell whether the input contexts of an intent are active.
+ *         Intents with input contexts are indexed (so that their phrases aren't confused with other intents),
+ *         but a query matching them is returned without intent to let the server decide.</li>
+ *     <li>Immutable once built, therefore thread-safe. Scores of a query are accumulated
+ *         in buffers reused by the same thread, so a query doesn't allocate anything proportional to the index.</li>
+ * </ul>
+ *
+ * @see #fromAgentExport(InputStream, String)
+ * @see DialogflowIntentDetector#setLocalClassifier(LocalIntentClassifier, float)
+ */
+public class LocalIntentClassifier {
+
+    private static final String SYS_NUMBER = "@sys.number";
+    private static final String SYS_IGNORE = "@sys.ignore";
+
+    private final String lngCode;
+
+    // Vocabulary and IDF of features (unigrams and bigrams)
+    private final Map<String, Integer> features;
+    private final float[] idf;
+
+    /**
+     * IDF of features unknown to the index. These still lower the confidence of the query.
+     */
+    private final float unknownIdf;
+
+    // Inverted index (CSR): postings of feature f are at [postingOffsets[f], postingOffsets[f + 1])
+    private final int[] postingOffsets;
+    private final int[] postingPhrases;
+    private final float[] postingWeights;
+
+    // Training phrases
+    private final int[] phraseIntents;
+
+    /**
+     * <code>[entity placeholder, parameter alias]</code> in the order of appearance in each phrase.
+     */
+    private final List<List<String[]>> phraseAliases;
+
+    // Intents
+    private final String[] intentNames;
+    private final String[] intentFulfillments;
+    private final boolean[] intentContextual;
+
+    // Entities: lowercase synonym -> [entity placeholder, value]
+    private final Map<String, String[]> synonyms;
+    private final int maxSynonymWords;
+
+    private final long buildMillis;
+
+    /**
+     * Scratch buffers of {@link #classify(String)} reused by each thread.
+     */
+    private final ThreadLocal<QueryBuffers> queryBuffers = new ThreadLocal<QueryBuffers>() {
+        @Override
+        protected QueryBuffers initialValue() {
+            return new QueryBuffers(phraseIntents.length);
+        }
+    };
+
+    private LocalIntentClassifier(Builder builder, long buildStartMillis) {
+
+        this.lngCode = builder.lngCode;
+        this.synonyms = builder.synonyms;
+        this.maxSynonymWords = builder.maxSynonymWords;
+        this.intentNames = builder.intentNames.toArray(new String[0]);
+        this.intentFulfillments = builder.intentFulfillments.toArray(new String[0]);
+        this.phraseAliases = builder.phraseAliases;
+
+        this.intentContextual = new boolean[intentNames.length];
+        for (int i = 0; i < intentNames.length; i++) intentContextual[i] = builder.intentContextual.get(i);
+
+        int phraseCount = builder.phraseFeatures.size();
+        this.phraseIntents = new int[phraseCount];
+        for (int i = 0; i < phraseCount; i++) phraseIntents[i] = builder.phraseIntents.get(i);
+
+        // Vocabulary and document frequencies
+        this.features = new HashMap<>();
+        List<Integer> df = new ArrayList<>();
+        int postingCount = 0;
+        for (Map<String, Integer> phrase : builder.phraseFeatures) {
+            for (String feature : phrase.keySet()) {
+                Integer id = features.get(feature);
+                if (id == null) {
+                    id = features.size();
+                    features.put(feature, id);
+                    df.add(0);
+                }
+                df.set(id, df.get(id) + 1);
+                postingCount++;
+            }
+        }
+
+        int featureCount = features.size();
+        this.idf = new float[featureCount];
+        for (int f = 0; f < featureCount; f++) {
+            idf[f] = idf(phraseCount, df.get(f));
+        }
+        this.unknownIdf = idf(phraseCount, 0);
+
+        // Inverted index
+        this.postingOffsets = new int[featureCount + 1];
+        for (int f = 0; f < featureCount; f++) {
+            postingOffsets[f + 1] = postingOffsets[f] + df.get(f);
+        }
+        this.postingPhrases = new int[postingCount];
+        this.postingWeights = new float[postingCount];
+
+        int[] fill = new int[featureCount];
+        for (int p = 0; p < phraseCount; p++) {
+            Map<String, Integer> phrase = builder.phraseFeatures.get(p);
+
+            double norm = 0;
+            for (Map.Entry<String, Integer> e : phrase.entrySet()) {
+                double w = e.getValue() * idf[features.get(e.getKey())];
+                norm += w * w;
+            }
+            norm = Math.sqrt(norm);
+
+            for (Map.Entry<String, Integer> e : phrase.entrySet()) {
+                int f = features.get(e.getKey());
+                int i = postingOffsets[f] + fill[f]++;
+                postingPhrases[i] = p;
+                postingWeights[i] = (float) (e.getValue() * idf[f] / norm);
+            }
+        }
+
+        this.buildMillis = System.currentTimeMillis() - buildStartMillis;
+    }
+
+    private static float idf(int documents, int df) {
+        return (float) (Math.log((documents + 1.0) / (df + 1.0)) + 1.0);
+    }
+
+    /**
+     * Builds the classifier from the ZIP file exported from Dialogflow console
+     * (<i>Agent settings &rarr; Export and Import &rarr; Export as ZIP</i>).
+     *
+     * @param lngCode Language of the training phrases and entities to load.
+     */
+    public static LocalIntentClassifier fromAgentExport(InputStream agentZip, String lngCode) throws IOException {
+
+        long start = System.currentTimeMillis();
+
+        Map<String, String> files = new HashMap<>();
+        try (ZipInputStream zip = new ZipInputStream(agentZip)) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                String name = entry.getName();
+                if (!entry.isDirectory() && name.endsWith(".json")
+                        && (name.startsWith("intents/") || name.startsWith("entities/"))) {
+                    files.put(name, readString(zip));
+                }
+            }
+        }
+
+        try {
+            Builder builder = new Builder(lngCode);
+            builder.loadEntities(files);
+            builder.loadIntents(files);
+            return new LocalIntentClassifier(builder, start);
+        } catch (JSONException e) {
+            throw new IOException("Malformed agent export", e);
+        }
+    }
+
+    /**
+     * Classifies the text query.
+     *
+     * @return Response compatible with the one returned by Dialogflow server
+     *         (intent display name, confidence, parameters and fulfillment text are set).
+     *         Intent is empty if the query doesn't match any training phrase
+     *         or if the matching intent requires input contexts.
+     */
+    public DialogflowIntentResponse classify(String text) {
+
+        QueryBuffers buffers = queryBuffers.get();
+        buffers.clear();
+
+        tokenize(text, buffers.tokens);
+        Map<String, List<Value>> entityValues = buffers.entityValues;
+        substituteEntities(buffers.tokens, buffers.substituted, entityValues);
+
+        List<String> tokens = buffers.substituted;
+        for (int i = 0; i < tokens.size(); i++) {
+            addQueryFeature(buffers, tokens.get(i));
+            if (i > 0) {
+                addQueryFeature(buffers, tokens.get(i - 1) + ' ' + tokens.get(i));
+            }
+        }
+
+        // Accumulate dot products of the query and the phrases sharing any feature with it.
+        // Weights are positive, so a phrase is touched once its score leaves zero.
+        float[] scores = buffers.scores;
+        int[] touched = buffers.touchedPhrases;
+        int touchedCount = 0;
+        double norm = buffers.unknownNorm;
+        for (int q = 0; q < buffers.featureCount; q++) {
+            int f = buffers.featureIds[q];
+            float w = buffers.featureCounts[q] * idf[f];
+            norm += w * w;
+            for (int i = postingOffsets[f]; i < postingOffsets[f + 1]; i++) {
+                int phrase = postingPhrases[i];
+                if (scores[phrase] == 0) {
+                    touched[touchedCount++] = phrase;
+                }
+                scores[phrase] += w * postingWeights[i];
+            }
+        }
+
+        // Lowest phrase index wins a tie, as if all the phrases were scanned in order.
+        int best = -1;
+        float bestScore = 0;
+        for (int t = 0; t < touchedCount; t++) {
+            int p = touched[t];
+            if (scores[p] > bestScore || (scores[p] == bestScore && best >= 0 && p < best)) {
+                bestScore = scores[p];
+                best = p;
+            }
+            scores[p] = 0;
+        }
+
+        QueryResult.Builder result = QueryResult.newBuilder()
+                .setQueryText(text)
+                .setLanguageCode(lngCode);
+
+        if (best >= 0 && norm > 0 && !intentContextual[phraseIntents[best]]) {
+            int intent = phraseIntents[best];
+            result.setIntent(Intent.newBuilder().setDisplayName(intentNames[intent]))
+                    .setIntentDetectionConfidence((float) Math.min(1.0, bestScore / Math.sqrt(norm)))
+                    .setFulfillmentText(intentFulfillments[intent])
+                    .setParameters(buildParameters(phraseAliases.get(best), entityValues));
+        }
+
+        return DialogflowIntentResponse.wrap(StreamingDetectIntentResponse.newBuilder().setQueryResult(result).build());
+    }
+
+    /**
+     * Counts a feature of the query. Features unknown to the index only add to the query norm.
+     */
+    private void addQueryFeature(QueryBuffers buffers, String feature) {
+        Integer id = features.get(feature);
+        if (id != null) {
+            buffers.addFeature(id);
+        } else if (buffers.unknownFeatures.add(feature)) {
+            // Weight of a repeated unknown feature grows with its count: (n + 1)^2 - n^2 = 2n + 1
+            buffers.unknownNorm += (double) unknownIdf * unknownIdf;
+        } else {
+            int count = 1;
+            for (String other : buffers.unknownRepeats) {
+                if (other.equals(feature)) count++;
+            }
+            buffers.unknownRepeats.add(feature);
+            buffers.unknownNorm += (2.0 * count + 1) * unknownIdf * unknownIdf;
+        }
+    }
+
+    /**
+     * Binds the n-th value of each entity to the n-th alias of the same entity.
+     */
+    private static Struct buildParameters(List<String[]> aliases, Map<String, List<Value>> entityValues) {
+        Struct.Builder parameters = Struct.newBuilder();
+        Map<String, Integer> occurrences = new HashMap<>();
+        for (String[] alias : aliases) {
+            Integer occurrence = occurrences.get(alias[0]);
+            int n = occurrence == null ? 0 : occurrence;
+            occurrences.put(alias[0], n + 1);
+
+            List<Value> values = entityValues.get(alias[0]);
+            Value value = values != null && n < values.size() ? values.get(n) : Value.newBuilder().setStringValue("").build();
+
+            if (!parameters.containsFields(alias[1])) {
+                parameters.putFields(alias[1], value);
+            } else {
+                // The same parameter referenced multiple times is a list
+                Value previous = parameters.getFieldsOrThrow(alias[1]);
+                ListValue.Builder list = previous.hasListValue()
+                        ? previous.getListValue().toBuilder()
+                        : ListValue.newBuilder().addValues(previous);
+                parameters.putFields(alias[1], Value.newBuilder().setListValue(list.addValues(value)).build());
+            }
+        }
+        return parameters.build();
+    }
+
+    /**
+     * Replaces entity synonyms and numbers by entity placeholders.
+     * @param entityValues Output of the recognized values (in the order of appearance) keyed by the entity placeholder.
+     */
+    private void substituteEntities(List<String> tokens, List<String> result, Map<String, List<Value>> entityValues) {
+
+        for (int i = 0; i < tokens.size(); ) {
+
+            // Longest synonym first
+            int matched = 0;
+            for (int n = Math.min(maxSynonymWords, tokens.size() - i); n > 0 && matched == 0; n--) {
+                String[] synonym = synonyms.get(join(tokens, i, i + n));
+                if (synonym != null) {
+                    result.add(synonym[0]);
+                    addEntityValue(entityValues, synonym[0], Value.newBuilder().setStringValue(synonym[1]).build());
+                    matched = n;
+                }
+            }
+
+            if (matched == 0) {
+                String token = tokens.get(i);
+                Double number = parseNumber(token);
+                if (number != null) {
+                    result.add(SYS_NUMBER);
+                    addEntityValue(entityValues, SYS_NUMBER, Value.newBuilder().setNumberValue(number).build());
+                } else {
+                    result.add(token);
+                }
+                matched = 1;
+            }
+
+            i += matched;
+        }
+    }
+
+    private static void addEntityValue(Map<String, List<Value>> entityValues, String placeholder, Value value) {
+        List<Value> values = entityValues.get(placeholder);
+        if (values == null) {
+            values = new ArrayList<>(2);
+            entityValues.put(placeholder, values);
+        }
+        values.add(value);
+    }
+
+    @Nullable
+    private static Double parseNumber(String token) {
+        char c = token.charAt(0);
+        if (c < '0' || c > '9') return null;
+        try {
+            return Double.parseDouble(token);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static Map<String, Integer> extractFeatures(List<String> tokens) {
+        Map<String, Integer> result = new HashMap<>();
+        for (int i = 0; i < tokens.size(); i++) {
+            countFeature(result, tokens.get(i));
+            if (i > 0) {
+                countFeature(result, tokens.get(i - 1) + ' ' + tokens.get(i));
+            }
+        }
+        return result;
+    }
+
+    private static void countFeature(Map<String, Integer> features, String feature) {
+        Integer count = features.get(feature);
+        features.put(feature, count == null ? 1 : count + 1);
+    }
+
+    private static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        tokenize(text, tokens);
+        return tokens;
+    }
+
+    private static void tokenize(String text, List<String> tokens) {
+        String lower = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean part = i < lower.length() && (Character.isLetterOrDigit(lower.charAt(i))
+                    || (lower.charAt(i) == '.' && start >= 0 && i + 1 < lower.length() && Character.isDigit(lower.charAt(i + 1))));
+            if (part && start < 0) {
+                start = i;
+            } else if (!part && start >= 0) {
+                tokens.add(lower.substring(start, i));
+                start = -1;
+            }
+        }
+    }
+
+    private static String join(List<String> tokens, int from, int to) {
+        if (to - from == 1) return tokens.get(from);
+        StringBuilder sb = new StringBuilder();
+        for (int i = from; i < to; i++) {
+            if (i > from) sb.append(' ');
+            sb.append(tokens.get(i));
+        }
+        return sb.toString();
+    }
+
+    private static String readString(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) > 0) {
+            out.write(buffer, 0, read);
+        }
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    public int getIntentCount() {
+        return intentNames.length;
+    }
+
+    /**
+     * @return Number of intents with input contexts, these are always left to the server.
+     */
+    public int getContextualIntentCount() {
+        int count = 0;
+        for (boolean contextual : intentContextual) {
+            if (contextual) count++;
+        }
+        return count;
+    }
+
+    public int getPhraseCount() {
+        return phraseIntents.length;
+    }
+
+    public int getFeatureCount() {
+        return idf.length;
+    }
+
+    /**
+     * @return Time it took to build the index (including parsing of the agent export).
+     */
+    public long getBuildMillis() {
+        return buildMillis;
+    }
+
+    /**
+     * @return Estimated memory footprint of the primitive arrays of the index (vocabulary excluded).
+     */
+    public long getIndexBytes() {
+        return 4L * (idf.length + postingOffsets.length + postingPhrases.length + postingWeights.length + phraseIntents.length);
+    }
+
+    @Override
+    public String toString() {
+        return "LocalIntentClassifier{" +
+                "lngCode='" + lngCode + '\'' +
+                ", intents=" + getIntentCount() +
+                ", contextualIntents=" + getContextualIntentCount() +
+                ", phrases=" + getPhraseCount() +
+                ", features=" + getFeatureCount() +
+                ", indexBytes=" + getIndexBytes() +
+                ", buildMillis=" + buildMillis +
+                '}';
+    }
+
+    /**
+     * Per-thread state of a single {@link #classify(String) query}.
+     */
+    private static class QueryBuffers {
+
+        /**
+         * Scores of the phrases, all zero between queries.
+         */
+        final float[] scores;
+
+        /**
+         * Phrases with a non-zero score in the current query.
+         */
+        final int[] touchedPhrases;
+
+        final List<String> tokens = new ArrayList<>();
+        final List<String> substituted = new ArrayList<>();
+
+        /**
+         * Recognized entity values of the query keyed by the entity placeholder.
+         */
+        final Map<String, List<Value>> entityValues = new HashMap<>();
+
+        // Known features of the query and their counts
+        int[] featureIds = new int[16];
+        int[] featureCounts = new int[16];
+        int featureCount;
+
+        // Unknown features of the query only contribute to its norm
+        final Set<String> unknownFeatures = new HashSet<>();
+        final List<String> unknownRepeats = new ArrayList<>();
+        double unknownNorm;
+
+        QueryBuffers(int phraseCount) {
+            this.scores = new float[phraseCount];
+            this.touchedPhrases = new int[phraseCount];
+        }
+
+        void clear() {
+            tokens.clear();
+            substituted.clear();
+            entityValues.clear();
+            featureCount = 0;
+            unknownFeatures.clear();
+            unknownRepeats.clear();
+            unknownNorm = 0;
+        }
+
+        void addFeature(int id) {
+            // Queries are short, a linear scan is cheaper than hashing.
+            for (int i = 0; i < featureCount; i++) {
+                if (featureIds[i] == id) {
+                    featureCounts[i]++;
+                    return;
+                }
+            }
+            if (featureCount == featureIds.length) {
+                featureIds = Arrays.copyOf(featureIds, featureCount * 2);
+                featureCounts = Arrays.copyOf(featureCounts, featureCount * 2);
+            }
+            featureIds[featureCount] = id;
+            featureCounts[featureCount] = 1;
+            featureCount++;
+        }
+    }
+
+    /**
+     * Collects training phrases and entities parsed from the agent export.
+     */
+    private static class Builder {
+
+        final String lngCode;
+
+        final List<String> intentNames = new ArrayList<>();
+        final List<String> intentFulfillments = new ArrayList<>();
+        final List<Boolean> intentContextual = new ArrayList<>();
+
+        final List<Map<String, Integer>> phraseFeatures = new ArrayList<>();
+        final List<Integer> phraseIntents = new ArrayList<>();
+        final List<List<String[]>> phraseAliases = new ArrayList<>();
+
+        final Map<String, String[]> synonyms = new HashMap<>();
+        final Set<String> entityPlaceholders = new HashSet<>();
+        int maxSynonymWords = 1;
+
+        Builder(String lngCode) {
+            this.lngCode = lngCode;
+        }
+
+        /**
+         * <code>entities/&lt;name&gt;.json</code> + <code>entities/&lt;name&gt;_entries_&lt;lng&gt;.json</code>
+         */
+        void loadEntities(Map<String, String> files) throws JSONException {
+            String entriesSuffix = "_entries_" + lngCode + ".json";
+            for (Map.Entry<String, String> file : files.entrySet()) {
+                String path = file.getKey();
+                if (!path.startsWith("entities/") || !path.endsWith(entriesSuffix)) continue;
+
+                String definition = files.get(path.substring(0, path.length() - entriesSuffix.length()) + ".json");
+                if (definition == null) continue;
+                String placeholder = "@" + new JSONObject(definition).getString("name").toLowerCase(Locale.ROOT);
+
+                JSONArray entries = new JSONArray(file.getValue());
+                for (int i = 0; i < entries.length(); i++) {
+                    JSONObject entry = entries.getJSONObject(i);
+                    String value = entry.getString("value");
+                    JSONArray entrySynonyms = entry.optJSONArray("synonyms");
+                    addSynonym(value, placeholder, value);
+                    if (entrySynonyms != null) {
+                        for (int j = 0; j < entrySynonyms.length(); j++) {
+                            addSynonym(entrySynonyms.getString(j), placeholder, value);
+                        }
+                    }
+                }
+            }
+        }
+
+        private void addSynonym(String synonym, String placeholder, String value) {
+            List<String> tokens = tokenize(synonym);
+            if (tokens.isEmpty()) return;
+            synonyms.put(join(tokens, 0, tokens.size()), new String[]{placeholder, value});
+            entityPlaceholders.add(placeholder);
+            maxSynonymWords = Math.max(maxSynonymWords, tokens.size());
+        }
+
+        /**
+         * <code>intents/&lt;name&gt;.json</code> + <code>intents/&lt;name&gt;_usersays_&lt;lng&gt;.json</code>
+         */
+        void loadIntents(Map<String, String> files) throws JSONException {
+            String userSaysSuffix = "_usersays_" + lngCode + ".json";
+            for (Map.Entry<String, String> file : files.entrySet()) {
+                String path = file.getKey();
+                if (!path.startsWith("intents/") || !path.endsWith(userSaysSuffix)) continue;
+
+                String definition = files.get(path.substring(0, path.length() - userSaysSuffix.length()) + ".json");
+                if (definition == null) continue;
+                JSONObject intent = new JSONObject(definition);
+
+                int intentId = intentNames.size();
+                intentNames.add(intent.getString("name"));
+                intentFulfillments.add(parseFulfillment(intent));
+                JSONArray contexts = intent.optJSONArray("contexts");
+                intentContextual.add(contexts != null && contexts.length() > 0);
+
+                JSONArray phrases = new JSONArray(file.getValue());
+                for (int i = 0; i < phrases.length(); i++) {
+                    addPhrase(intentId, phrases.getJSONObject(i).getJSONArray("data"));
+                }
+            }
+        }
+
+        private void addPhrase(int intentId, JSONArray parts) throws JSONException {
+
+            List<String> tokens = new ArrayList<>();
+            List<String[]> aliases = new ArrayList<>();
+
+            for (int i = 0; i < parts.length(); i++) {
+                JSONObject part = parts.getJSONObject(i);
+                String text = part.getString("text");
+                String meta = part.optString("meta", "").toLowerCase(Locale.ROOT);
+                String alias = part.optString("alias", "");
+
+                // Only entities recognizable in queries are replaced by the placeholder
+                if (!meta.isEmpty() && !alias.isEmpty() && !SYS_IGNORE.equals(meta)
+                        && (SYS_NUMBER.equals(meta) || entityPlaceholders.contains(meta))) {
+                    tokens.add(meta);
+                    aliases.add(new String[]{meta, alias});
+                } else {
+                    tokens.addAll(tokenize(text));
+                }
+            }
+
+            if (tokens.isEmpty()) return;
+
+            phraseFeatures.add(extractFeatures(tokens));
+            phraseIntents.add(intentId);
+            phraseAliases.add(aliases);
+        }
+
+        /**
+         * @return First text response of the intent in the loaded language.
+         */
+        private String parseFulfillment(JSONObject intent) throws JSONException {
+            JSONArray responses = intent.optJSONArray("responses");
+            if (responses == null) return "";
+            for (int i = 0; i < responses.length(); i++) {
+                JSONArray messages = responses.getJSONObject(i).optJSONArray("messages");
+                if (messages == null) continue;
+                for (int j = 0; j < messages.length(); j++) {
+                    JSONObject message = messages.getJSONObject(j);
+                    if (!lngCode.equals(message.optString("lang", lngCode))) continue;
+                    Object speech = message.opt("speech");
+                    if (speech instanceof String && !((String) speech).isEmpty()) {
+                        return (String) speech;
+                    } else if (speech instanceof JSONArray && ((JSONArray) speech).length() > 0) {
+                        return ((JSONArray) speech).getString(0);
+                    }
+                }
+            }
+            return "";
+        }
+    }
+
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright © 2026 Educards Learning, SL.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.educards.android.dialogflow;
+
+import com.google.cloud.dialogflow.v2.StreamingDetectIntentResponse;
+
+/**
+ * Optional extension of {@link DialogflowIntentObserver} notified about utterances
+ * recorded while offline (see {@link DialogflowIntentDetector#setOfflineQueue(OfflineUtteranceQueue)}).
+ * It's sufficient to implement this interface by the observer passed to {@link DialogflowIntentDetector}.
+ *
+ * <p>Callbacks of each queued utterance are tagged by the time the utterance has been captured.</p>
+ */
+public interface OfflineUtteranceObserver {
+
+    /**
+     * Called once an utterance recorded while offline has been stored in the queue.
+     */
+    void onOfflineUtteranceQueued(DialogflowIntentDetector detector, long captureTimeMillis);
+
+    /**
+     * Called once the queued utterance has been sent and the server has responded.
+     */
+    void onOfflineUtteranceResponse(DialogflowIntentDetector detector, long captureTimeMillis, StreamingDetectIntentResponse response);
+
+    /**
+     * Called if the queued utterance couldn't be processed by the server.
+     * The utterance has been removed from the queue.
+     */
+    void onOfflineUtteranceError(DialogflowIntentDetector detector, long captureTimeMillis, Throwable t);
+
+}
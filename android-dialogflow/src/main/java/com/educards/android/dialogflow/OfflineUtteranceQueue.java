@@ -0,0 +1,281 @@
+/*
+ * Copyright © 2026 Educards Learning, SL.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.educards.android.dialogflow;
+
+import android.content.Context;
+import android.net.ConnectivityManager;
+import android.net.Network;
+import android.net.NetworkCapabilities;
+import android.net.NetworkInfo;
+import android.net.NetworkRequest;
+import android.os.Build;
+import android.util.Log;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.Nullable;
+
+/**
+ * On-disk queue of utterances recorded while the device is offline.
+ *
+ * <ul>
+ *     <li>Each utterance is stored as raw audio (see {@link com.educards.android.audiorec.AudioRecordingConstants})
+ *         in a separate file named after its capture time, therefore the queue survives app restarts.</li>
+ *     <li>Utterances are written to a temporary file first and become visible only
+ *         once {@link Writer#commit() committed}.</li>
+ *     <li>Monitors the connectivity to let {@link DialogflowIntentDetector} send the queued
+ *         utterances once the network is available again.</li>
+ *     <li>Requires <code>android.permission.ACCESS_NETWORK_STATE</code>.</li>
+ * </ul>
+ *
+ * @see DialogflowIntentDetector#setOfflineQueue(OfflineUtteranceQueue)
+ */
+public class OfflineUtteranceQueue {
+
+    private static final String TAG = "OfflineUtteranceQueue";
+
+    private static final String QUEUE_DIR = "dialogflow-offline";
+    private static final String SUFFIX = ".pcm";
+    private static final String TMP_SUFFIX = ".tmp";
+
+    /**
+     * Utterance stored in the queue.
+     */
+    public static class Utterance {
+
+        final File file;
+        final long captureTimeMillis;
+
+        Utterance(File file, long captureTimeMillis) {
+            this.file = file;
+            this.captureTimeMillis = captureTimeMillis;
+        }
+
+        public long getCaptureTimeMillis() {
+            return captureTimeMillis;
+        }
+
+        byte[] read() throws IOException {
+            byte[] data = new byte[(int) file.length()];
+            try (InputStream in = new FileInputStream(file)) {
+                int read = 0;
+                while (read < data.length) {
+                    int result = in.read(data, read, data.length - read);
+                    if (result < 0) throw new IOException("Unexpected end of file");
+                    read += result;
+                }
+            }
+            return data;
+        }
+    }
+
+    /**
+     * Writer of a single utterance. Not thread-safe, expected to be used from the recording thread.
+     */
+    public class Writer {
+
+        private final File tmp;
+        private final File file;
+        private final OutputStream out;
+        private final long captureTimeMillis;
+        private long bytes;
+
+        Writer(long captureTimeMillis) throws IOException {
+            this.captureTimeMillis = captureTimeMillis;
+            String name = captureTimeMillis + "-" + sequence.incrementAndGet() + SUFFIX;
+            this.file = new File(dir, name);
+            this.tmp = new File(dir, name + TMP_SUFFIX);
+            this.out = new BufferedOutputStream(new FileOutputStream(tmp));
+        }
+
+        public void write(byte[] data, int length) throws IOException {
+            out.write(data, 0, length);
+            bytes += length;
+        }
+
+        public long getCaptureTimeMillis() {
+            return captureTimeMillis;
+        }
+
+        public long getBytes() {
+            return bytes;
+        }
+
+        /**
+         * Makes the utterance visible in the queue.
+         */
+        public void commit() throws IOException {
+            out.close();
+            if (!tmp.renameTo(file)) {
+                tmp.delete();
+                throw new IOException(String.format("Failed to commit utterance [file=%s]", file));
+            }
+        }
+
+        /**
+         * Discards the utterance.
+         */
+        public void discard() {
+            try {
+                out.close();
+            } catch (IOException e) {
+                Log.w(TAG, "Failed to close discarded utterance", e);
+            }
+            tmp.delete();
+        }
+    }
+
+    private final File dir;
+    private final ConnectivityManager connectivityManager;
+    private final AtomicInteger sequence = new AtomicInteger();
+
+    @Nullable
+    private ConnectivityManager.NetworkCallback networkCallback;
+
+    public OfflineUtteranceQueue(Context context) {
+        this.dir = new File(context.getFilesDir(), QUEUE_DIR);
+        this.connectivityManager = (ConnectivityManager) context.getSystemService(Context.CONNECTIVITY_SERVICE);
+
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            Log.e(TAG, String.format("Failed to create queue directory [dir=%s]", dir));
+        }
+
+        // Utterances interrupted by app termination are never committed.
+        File[] tmpFiles = dir.listFiles((d, name) -> name.endsWith(TMP_SUFFIX));
+        if (tmpFiles != null) {
+            for (File tmp : tmpFiles) tmp.delete();
+        }
+    }
+
+    /**
+     * @return <code>true</code> if the active network provides internet access
+     *         (validated by the system since API 23, e.g. not behind a captive portal).
+     */
+    @SuppressWarnings("deprecation")
+    public boolean isNetworkAvailable() {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
+            Network network = connectivityManager.getActiveNetwork();
+            return network != null && hasInternet(connectivityManager.getNetworkCapabilities(network));
+        } else {
+            NetworkInfo info = connectivityManager.getActiveNetworkInfo();
+            return info != null && info.isConnected();
+        }
+    }
+
+    private static boolean hasInternet(@Nullable NetworkCapabilities capabilities) {
+        if (capabilities == null || !capabilities.hasCapability(NetworkCapabilities.NET_CAPABILITY_INTERNET)) {
+            return false;
+        }
+        return Build.VERSION.SDK_INT < Build.VERSION_CODES.M
+                || capabilities.hasCapability(NetworkCapabilities.NET_CAPABILITY_VALIDATED);
+    }
+
+    /**
+     * Starts a new utterance captured right now.
+     */
+    public Writer newUtterance() throws IOException {
+        return new Writer(System.currentTimeMillis());
+    }
+
+    /**
+     * @return Up to <code>max</code> oldest utterances of the queue.
+     */
+    public List<Utterance> peek(int max) {
+
+        File[] files = dir.listFiles((d, name) -> name.endsWith(SUFFIX));
+        if (files == null || files.length == 0) {
+            return new ArrayList<>(0);
+        }
+
+        Utterance[] utterances = new Utterance[files.length];
+        for (int i = 0; i < files.length; i++) {
+            utterances[i] = new Utterance(files[i], parseCaptureTime(files[i].getName()));
+        }
+        Arrays.sort(utterances, (a, b) -> Long.compare(a.captureTimeMillis, b.captureTimeMillis));
+
+        List<Utterance> result = new ArrayList<>(Math.min(max, utterances.length));
+        for (int i = 0; i < utterances.length && i < max; i++) {
+            result.add(utterances[i]);
+        }
+        return result;
+    }
+
+    public void remove(Utterance utterance) {
+        if (!utterance.file.delete()) {
+            Log.w(TAG, String.format("Failed to remove utterance [file=%s]", utterance.file));
+        }
+    }
+
+    public boolean isEmpty() {
+        return peek(1).isEmpty();
+    }
+
+    private static long parseCaptureTime(String name) {
+        try {
+            return Long.parseLong(name.substring(0, name.indexOf('-')));
+        } catch (RuntimeException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Registers the callback invoked (from a system thread) each time the network becomes available.
+     * Since the network is usually validated only after it has become available, the callback
+     * is invoked also on validation (and possibly more times than that).
+     */
+    synchronized void startMonitoring(Runnable onNetworkAvailable) {
+        stopMonitoring();
+
+        networkCallback = new ConnectivityManager.NetworkCallback() {
+            @Override
+            public void onAvailable(Network network) {
+                onNetworkAvailable.run();
+            }
+
+            @Override
+            public void onCapabilitiesChanged(Network network, NetworkCapabilities capabilities) {
+                if (hasInternet(capabilities)) {
+                    onNetworkAvailable.run();
+                }
+            }
+        };
+
+        connectivityManager.registerNetworkCallback(
+                new NetworkRequest.Builder()
+                        .addCapability(NetworkCapabilities.NET_CAPABILITY_INTERNET)
+                        .build(),
+                networkCallback);
+    }
+
+    synchronized void stopMonitoring() {
+        if (networkCallback != null) {
+            connectivityManager.unregisterNetworkCallback(networkCallback);
+            networkCallback = null;
+        }
+    }
+
+}
@@ -0,0 +1,228 @@
+/*
+ * Copyright © 2026 Educards Learning, SL.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.educards.android.dialogflow;
+
+import android.content.Context;
+import android.util.Log;
+
+import com.educards.android.audioplay.AudioTrackPlayer;
+import com.google.cloud.dialogflow.v2.OutputAudioConfig;
+import com.google.cloud.dialogflow.v2.OutputAudioEncoding;
+import com.google.cloud.dialogflow.v2.StreamingDetectIntentResponse;
+import com.google.cloud.dialogflow.v2.SynthesizeSpeechConfig;
+import com.google.cloud.dialogflow.v2.VoiceSelectionParams;
+import com.google.protobuf.ByteString;
+
+import java.io.File;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.Nullable;
+
+/**
+ * Playback of the audio synthesized by Dialogflow for the <code>fulfillmentText</code>.
+ *
+ * <ul>
+ *     <li>If set to {@link DialogflowIntentDetector#setOutputAudioPlayback(OutputAudioPlayback)} the detector
+ *         requests the output audio on the streaming call and the audio is played by {@link AudioTrackPlayer}
+ *         as soon as it arrives.</li>
+ *     <li>Played audio is stored in {@link SynthesizedAudioCache}. The audio of the response is always played
+ *         from memory, the cache is read only by {@link #playCached(String, String)}
+ *         (e.g. once the same text is expected again, without waiting for the server's audio).</li>
+ *     <li>The cache is read and written from a dedicated I/O thread, so the gRPC thread delivering
+ *         the response (and the observer callbacks which follow) is never blocked by disk I/O.</li>
+ *     <li>The playback is owned by the client of this library, {@link #release()} needs to be called
+ *         to clean up resources.</li>
+ * </ul>
+ */
+public class OutputAudioPlayback {
+
+    private static final String TAG = "OutputAudioPlayback";
+
+    /**
+     * Sample rate of the requested output audio.
+     */
+    public static final int SAMPLE_RATE = 24000;
+
+    private static final String CACHE_DIR = "dialogflow-tts";
+
+    @Nullable
+    private final String voiceName;
+
+    private final AudioTrackPlayer player = new AudioTrackPlayer(SAMPLE_RATE);
+    private final SynthesizedAudioCache cache;
+
+    private final ExecutorService ioExecutor = Executors.newSingleThreadExecutor(
+            r -> new Thread(r, OutputAudioPlayback.class.getSimpleName()));
+
+    /**
+     * Incremented by {@link #stop()} to drop the playbacks still waiting for the cache.
+     */
+    private final AtomicInteger generation = new AtomicInteger();
+
+    /**
+     * @param voiceName Name of the voice (see <a href="https://cloud.google.com/text-to-speech/docs/voices">voices</a>)
+     *                  or <code>null</code> for the default voice of the agent.
+     * @param maxCacheBytes Size limit of the synthesized audio cache.
+     */
+    public OutputAudioPlayback(Context context, @Nullable String voiceName, long maxCacheBytes) {
+        this.voiceName = voiceName;
+        this.cache = new SynthesizedAudioCache(new File(context.getCacheDir(), CACHE_DIR), maxCacheBytes);
+    }
+
+    OutputAudioConfig buildOutputAudioConfig() {
+
+        OutputAudioConfig.Builder builder = OutputAudioConfig.newBuilder()
+                .setAudioEncoding(OutputAudioEncoding.OUTPUT_AUDIO_ENCODING_LINEAR_16)
+                .setSampleRateHertz(SAMPLE_RATE);
+
+        if (voiceName != null) {
+            builder.setSynthesizeSpeechConfig(SynthesizeSpeechConfig.newBuilder()
+                    .setVoice(VoiceSelectionParams.newBuilder().setName(voiceName)));
+        }
+
+        return builder.build();
+    }
+
+    /**
+     * Plays the audio of the response (cached or synthesized by the server).
+     * Called from gRPC thread, doesn't block on disk I/O.
+     * @return <code>true</code> if the playback has been requested.
+     */
+    boolean onResponse(StreamingDetectIntentResponse response, String lngCode) {
+
+        String text = response.getQueryResult().getFulfillmentText();
+        if (text.isEmpty()) {
+            return false;
+        }
+
+        ByteString outputAudio = response.getOutputAudio();
+        if (outputAudio.isEmpty()) {
+            return playCached(text, lngCode);
+        }
+
+        if (ioExecutor.isShutdown()) {
+            Log.w(TAG, "Playback requested on released playback");
+            return false;
+        }
+
+        // The audio is already in memory, the cache is only updated.
+        byte[] pcm = stripWavHeader(outputAudio.toByteArray());
+        player.play(pcm, 0, pcm.length);
+
+        execute(() -> {
+            if (!cache.touch(text, voiceName, lngCode)) {
+                cache.put(text, voiceName, lngCode, pcm);
+            }
+        });
+        return true;
+    }
+
+    /**
+     * Plays the previously synthesized audio of the <code>text</code>.
+     * The audio is read from the cache asynchronously.
+     * @return <code>false</code> if there is no such audio in cache.
+     */
+    public boolean playCached(String text, String lngCode) {
+        if (!cache.contains(text, voiceName, lngCode)) {
+            return false;
+        }
+        int playbackGeneration = generation.get();
+        return execute(() -> {
+            byte[] pcm = cache.get(text, voiceName, lngCode);
+            if (pcm == null) {
+                return;
+            }
+            if (BuildConfig.DEBUG) Log.d(TAG, String.format("Playing cached audio [bytes=%d]", pcm.length));
+            play(pcm, playbackGeneration);
+        });
+    }
+
+    /**
+     * Stops the current playback (including the playbacks still waiting for the cache).
+     */
+    public void stop() {
+        generation.incrementAndGet();
+        player.stop();
+    }
+
+    public void release() {
+        generation.incrementAndGet();
+        ioExecutor.shutdown();
+        player.release();
+    }
+
+    /**
+     * Runs the cache I/O on {@link #ioExecutor}.
+     * @return <code>false</code> if the playback has already been released.
+     */
+    private boolean execute(Runnable task) {
+        if (ioExecutor.isShutdown()) {
+            Log.w(TAG, "Playback requested on released playback");
+            return false;
+        }
+        ioExecutor.execute(() -> {
+            try {
+                task.run();
+            } catch (Throwable t) {
+                Log.e(TAG, "Output audio playback failed", t);
+            }
+        });
+        return true;
+    }
+
+    private void play(byte[] pcm, int playbackGeneration) {
+        if (generation.get() == playbackGeneration) {
+            player.play(pcm, 0, pcm.length);
+        }
+    }
+
+    /**
+     * <code>LINEAR16</code> output audio of Dialogflow is wrapped in WAV container.
+     * @return Raw PCM data of the <code>data</code> chunk.
+     */
+    private static byte[] stripWavHeader(byte[] audio) {
+
+        if (audio.length < 12 || audio[0] != 'R' || audio[1] != 'I' || audio[2] != 'F' || audio[3] != 'F') {
+            return audio;
+        }
+
+        int offset = 12;
+        while (offset + 8 <= audio.length) {
+            int size = (audio[offset + 4] & 0xff)
+                    | (audio[offset + 5] & 0xff) << 8
+                    | (audio[offset + 6] & 0xff) << 16
+                    | (audio[offset + 7] & 0xff) << 24;
+
+            if (audio[offset] == 'd' && audio[offset + 1] == 'a' && audio[offset + 2] == 't' && audio[offset + 3] == 'a') {
+                int start = offset + 8;
+                int length = size < 0 ? audio.length - start : Math.min(size, audio.length - start);
+                byte[] pcm = new byte[length];
+                System.arraycopy(audio, start, pcm, 0, length);
+                return pcm;
+            }
+
+            if (size < 0) break;
+            offset += 8 + size + (size & 1);
+        }
+
+        Log.w(TAG, "WAV data chunk not found");
+        return audio;
+    }
+
+}
@@ -0,0 +1,224 @@
+/*
+ * Copyright © 2026 Educards Learning, SL.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.educards.android.dialogflow;
+
+import android.util.Log;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.annotation.Nullable;
+
+/**
+ * Disk-backed LRU cache of audio synthesized by Dialogflow.
+ *
+ * <ul>
+ *     <li>Entries are keyed by the synthesized text, voice and language.</li>
+ *     <li>Each entry is stored in a separate file of the cache directory. The LRU order is kept in memory
+ *         and restored from file modification times once the cache is created.</li>
+ *     <li>Least recently used entries are evicted once the total size exceeds the configured limit.</li>
+ * </ul>
+ */
+public class SynthesizedAudioCache {
+
+    private static final String TAG = "SynthesizedAudioCache";
+
+    private static final String TMP_SUFFIX = ".tmp";
+
+    private final File dir;
+    private final long maxBytes;
+
+    /**
+     * Sizes of the cached entries in access order (eldest first).
+     */
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+
+    public SynthesizedAudioCache(File dir, long maxBytes) {
+        this.dir = dir;
+        this.maxBytes = maxBytes;
+        load();
+    }
+
+    private void load() {
+
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            Log.e(TAG, String.format("Failed to create cache directory [dir=%s]", dir));
+            return;
+        }
+
+        File[] files = dir.listFiles();
+        if (files == null) return;
+
+        Arrays.sort(files, (a, b) -> Long.compare(a.lastModified(), b.lastModified()));
+        for (File file : files) {
+            if (file.getName().endsWith(TMP_SUFFIX)) {
+                file.delete();
+            } else {
+                entries.put(file.getName(), file.length());
+                totalBytes += file.length();
+            }
+        }
+        evict();
+    }
+
+    /**
+     * Checks the in-memory index only, therefore it doesn't block on disk I/O.
+     * @return <code>true</code> if there is an entry for the text (it might still fail to be {@link #get read}).
+     */
+    public synchronized boolean contains(String text, @Nullable String voice, String lngCode) {
+        return entries.containsKey(key(text, voice, lngCode));
+    }
+
+    /**
+     * Reads the entry from disk, shouldn't be called from a latency sensitive thread.
+     * @return Cached audio or <code>null</code> if there is no such entry.
+     */
+    @Nullable
+    public synchronized byte[] get(String text, @Nullable String voice, String lngCode) {
+
+        String key = key(text, voice, lngCode);
+        if (entries.get(key) == null) {
+            return null;
+        }
+
+        File file = new File(dir, key);
+        try {
+            byte[] data = read(file);
+            file.setLastModified(System.currentTimeMillis());
+            return data;
+        } catch (IOException e) {
+            Log.e(TAG, String.format("Failed to read cache entry [file=%s]", file), e);
+            remove(key);
+            return null;
+        }
+    }
+
+    /**
+     * Marks the entry as recently used without reading it.
+     * Updates the file modification time, shouldn't be called from a latency sensitive thread.
+     * @return <code>false</code> if there is no such entry.
+     */
+    public synchronized boolean touch(String text, @Nullable String voice, String lngCode) {
+
+        String key = key(text, voice, lngCode);
+        if (entries.get(key) == null) {
+            return false;
+        }
+
+        File file = new File(dir, key);
+        if (!file.setLastModified(System.currentTimeMillis()) && !file.isFile()) {
+            Log.w(TAG, String.format("Cache entry missing [file=%s]", file));
+            remove(key);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Writes the entry to disk, shouldn't be called from a latency sensitive thread.
+     */
+    public synchronized void put(String text, @Nullable String voice, String lngCode, byte[] data) {
+
+        String key = key(text, voice, lngCode);
+        File file = new File(dir, key);
+        File tmp = new File(dir, key + TMP_SUFFIX);
+
+        try (OutputStream out = new FileOutputStream(tmp)) {
+            out.write(data);
+        } catch (IOException e) {
+            Log.e(TAG, String.format("Failed to write cache entry [file=%s]", tmp), e);
+            tmp.delete();
+            return;
+        }
+
+        if (!tmp.renameTo(file)) {
+            Log.e(TAG, String.format("Failed to commit cache entry [file=%s]", file));
+            tmp.delete();
+            return;
+        }
+
+        Long previous = entries.put(key, (long) data.length);
+        totalBytes += data.length - (previous == null ? 0 : previous);
+        evict();
+    }
+
+    public synchronized long getTotalBytes() {
+        return totalBytes;
+    }
+
+    private void evict() {
+        Iterator<Map.Entry<String, Long>> it = entries.entrySet().iterator();
+        while (totalBytes > maxBytes && it.hasNext()) {
+            Map.Entry<String, Long> eldest = it.next();
+            new File(dir, eldest.getKey()).delete();
+            totalBytes -= eldest.getValue();
+            it.remove();
+        }
+    }
+
+    private void remove(String key) {
+        Long size = entries.remove(key);
+        if (size != null) {
+            totalBytes -= size;
+            new File(dir, key).delete();
+        }
+    }
+
+    private static byte[] read(File file) throws IOException {
+        byte[] data = new byte[(int) file.length()];
+        try (InputStream in = new FileInputStream(file)) {
+            int read = 0;
+            while (read < data.length) {
+                int result = in.read(data, read, data.length - read);
+                if (result < 0) throw new IOException("Unexpected end of file");
+                read += result;
+            }
+        }
+        return data;
+    }
+
+    private static String key(String text, @Nullable String voice, String lngCode) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            digest.update(lngCode.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update((voice == null ? "" : voice).getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(text.getBytes(StandardCharsets.UTF_8));
+
+            StringBuilder sb = new StringBuilder();
+            for (byte b : digest.digest()) sb.append(String.format("%02x", b));
+            return sb.toString();
+
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright © 2026 Educards Learning, SL.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.educards.android.dialogflow.routing;
+
+import com.educards.android.dialogflow.DialogflowIntentResponse;
+
+/**
+ * Dispatcher of detected intents to {@link IntentHandler} methods.
+ * Implementations are generated at compile time, no reflection is involved at runtime.
+ *
+ * <pre>
+ * IntentDispatcher dispatcher = new MyHandlers_IntentDispatcher(myHandlers);
+ * dispatcher.dispatch(DialogflowIntentResponse.wrap(response));
+ * </pre>
+ */
+public interface IntentDispatcher {
+
+    /**
+     * @return <code>false</code> if there is no handler of the intent.
+     */
+    boolean dispatch(DialogflowIntentResponse response);
+
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright © 2026 Educards Learning, SL.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.educards.android.dialogflow.routing;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a method handling a single Dialogflow intent.
+ *
+ * <ul>
+ *     <li>The annotation processor (<code>com.educards:android-dialogflow-processor</code>) generates
+ *         <code>&lt;EnclosingClass&gt;_IntentDispatcher</code> which routes {@link com.educards.android.dialogflow.DialogflowIntentResponse
+ *         responses} to the annotated methods (see {@link IntentDispatcher}).</li>
+ *     <li>Method parameters are either annotated by {@link IntentParam} or of type
+ *         {@link com.educards.android.dialogflow.DialogflowIntentResponse}.</li>
+ *     <li>The method must be neither private nor static and must not declare any thrown exceptions.</li>
+ * </ul>
+ */
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.METHOD)
+public @interface IntentHandler {
+
+    /**
+     * Display name of the handled intent.
+     */
+    String value();
+
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright © 2026 Educards Learning, SL.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.educards.android.dialogflow.routing;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Binds a parameter of the detected intent to the parameter of {@link IntentHandler} method.
+ *
+ * <p>Supported types:</p>
+ * <ul>
+ *     <li><code>String</code></li>
+ *     <li><code>double</code>, <code>Double</code></li>
+ *     <li><code>boolean</code>, <code>Boolean</code></li>
+ *     <li>{@link com.google.protobuf.Value}</li>
+ * </ul>
+ * Missing parameters are bound as <code>null</code> (<code>0</code>/<code>false</code> for primitives).
+ */
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.PARAMETER)
+public @interface IntentParam {
+
+    /**
+     * Name of the intent parameter.
+     */
+    String value();
+
+}